@@ -104,7 +104,7 @@ CREATE TABLE IF NOT EXISTS transactions (
     created_at DATETIME(6) NOT NULL,
     FOREIGN KEY (account_id) REFERENCES accounts(id) ON DELETE RESTRICT ON UPDATE CASCADE,
     INDEX idx_transactions_ref (reference_number),
-    INDEX idx_transactions_account (account_id),
+    INDEX idx_transactions_account_created (account_id, created_at, id),
     INDEX idx_transactions_created (created_at)
 ) ENGINE=InnoDB;
 
@@ -152,12 +152,19 @@ CREATE TABLE IF NOT EXISTS kyc_documents (
     status ENUM('UPLOADED', 'UNDER_REVIEW', 'APPROVED', 'REJECTED') NOT NULL DEFAULT 'UPLOADED',
     rejection_reason VARCHAR(500),
     verified_at DATETIME(6),
+    claimed_by BIGINT,
+    claimed_at DATETIME(6),
+    lease_expires_at DATETIME(6),
+    priority INT NOT NULL DEFAULT 0,
+    queue_rank_at DATETIME(6) NOT NULL,
     created_at DATETIME(6) NOT NULL,
     updated_at DATETIME(6) NOT NULL,
     FOREIGN KEY (customer_id) REFERENCES customers(id) ON DELETE CASCADE ON UPDATE CASCADE,
     FOREIGN KEY (verified_by) REFERENCES employees(id) ON DELETE SET NULL ON UPDATE CASCADE,
+    FOREIGN KEY (claimed_by) REFERENCES users(id) ON DELETE SET NULL ON UPDATE CASCADE,
     INDEX idx_kyc_customer (customer_id),
-    INDEX idx_kyc_status (status)
+    INDEX idx_kyc_status (status),
+    INDEX idx_kyc_queue (status, queue_rank_at)
 ) ENGINE=InnoDB;
 
 -- ============================================================
@@ -168,10 +175,10 @@ CREATE TABLE IF NOT EXISTS cards (
     account_id BIGINT NOT NULL,
     card_type ENUM('DEBIT', 'CREDIT', 'PREPAID') NOT NULL,
     masked_card_number VARCHAR(20) NOT NULL,
-    card_number_hash VARCHAR(255) NOT NULL,
+    card_number_hash VARCHAR(64) NOT NULL,
     card_holder_name VARCHAR(200) NOT NULL,
     expiry_date DATE NOT NULL,
-    cvv_hash VARCHAR(255) NOT NULL,
+    cvv_hash VARCHAR(100) NOT NULL,
     status ENUM('ACTIVE', 'BLOCKED', 'EXPIRED', 'CANCELLED', 'PENDING_ACTIVATION') NOT NULL DEFAULT 'ACTIVE',
     credit_limit DECIMAL(12,2),
     available_limit DECIMAL(12,2) DEFAULT 0.00,
@@ -182,7 +189,29 @@ CREATE TABLE IF NOT EXISTS cards (
     updated_at DATETIME(6) NOT NULL,
     FOREIGN KEY (account_id) REFERENCES accounts(id) ON DELETE CASCADE ON UPDATE CASCADE,
     INDEX idx_cards_number (masked_card_number),
-    INDEX idx_cards_account (account_id)
+    INDEX idx_cards_account (account_id),
+    UNIQUE INDEX idx_cards_number_hash (card_number_hash)
+) ENGINE=InnoDB;
+
+-- ============================================================
+-- TABLE: card_authorizations
+-- ============================================================
+CREATE TABLE IF NOT EXISTS card_authorizations (
+    id BIGINT PRIMARY KEY,
+    card_id BIGINT NOT NULL,
+    amount DECIMAL(12,2) NOT NULL,
+    captured_amount DECIMAL(12,2),
+    channel ENUM('POS', 'ONLINE', 'CONTACTLESS', 'ATM') NOT NULL,
+    international BOOLEAN NOT NULL DEFAULT FALSE,
+    merchant_name VARCHAR(100),
+    status ENUM('APPROVED', 'DECLINED', 'CAPTURED', 'REVERSED') NOT NULL,
+    decline_reason VARCHAR(50),
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    FOREIGN KEY (card_id) REFERENCES cards(id) ON DELETE CASCADE ON UPDATE CASCADE,
+    INDEX idx_card_auth_card (card_id, created_at),
+    INDEX idx_card_auth_status (status),
+    INDEX idx_card_auth_created (created_at)
 ) ENGINE=InnoDB;
 
 -- ============================================================
@@ -215,8 +244,19 @@ CREATE TABLE IF NOT EXISTS notifications (
     reference_type VARCHAR(30),
     created_at DATETIME(6) NOT NULL,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE ON UPDATE CASCADE,
-    INDEX idx_notif_user (user_id),
-    INDEX idx_notif_read (is_read)
+    INDEX idx_notif_user_id (user_id, id)
+) ENGINE=InnoDB;
+
+-- ============================================================
+-- TABLE: notification_user_state (per-user unread counter and read watermark)
+-- A notification is read when its id <= read_up_to_id or its own is_read flag is set
+-- ============================================================
+CREATE TABLE IF NOT EXISTS notification_user_state (
+    user_id BIGINT PRIMARY KEY,
+    unread_count BIGINT NOT NULL DEFAULT 0,
+    read_up_to_id BIGINT NOT NULL DEFAULT 0,
+    updated_at DATETIME(6) NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE ON UPDATE CASCADE
 ) ENGINE=InnoDB;
 
 -- ============================================================
@@ -236,10 +276,29 @@ CREATE TABLE IF NOT EXISTS audit_logs (
     error_message VARCHAR(500),
     created_at DATETIME(6) NOT NULL,
     INDEX idx_audit_user (user_id),
-    INDEX idx_audit_action (action),
+    INDEX idx_audit_action_created (action, created_at),
     INDEX idx_audit_created (created_at)
 ) ENGINE=InnoDB;
 
+-- ============================================================
+-- TABLE: outbox_events (post-commit notifications and emails)
+-- ============================================================
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    event_type ENUM('NOTIFICATION', 'EMAIL') NOT NULL,
+    payload TEXT NOT NULL,
+    status ENUM('PENDING', 'PROCESSING', 'SENT', 'FAILED') NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME(6) NOT NULL,
+    group_key VARCHAR(150),
+    last_error VARCHAR(500),
+    processed_at DATETIME(6),
+    created_at DATETIME(6) NOT NULL,
+    INDEX idx_outbox_due (status, next_attempt_at),
+    INDEX idx_outbox_processed (processed_at),
+    INDEX idx_outbox_group (group_key, status)
+) ENGINE=InnoDB;
+
 -- ============================================================
 -- TRIGGER: Enforce KYC approval before issuing credit cards
 -- ============================================================
@@ -338,3 +397,8 @@ FROM accounts a WHERE a.account_number = 'FINS1001234567';
 INSERT INTO notifications (user_id, type, title, message, is_read, created_at)
 SELECT id, 'ACCOUNT', 'Welcome to FinSecure', 'Your account has been created successfully. Complete KYC to unlock all features.', FALSE, NOW(6)
 FROM users WHERE email = 'priya@gmail.com';
+
+-- Unread counters for the seeded notifications
+INSERT INTO notification_user_state (user_id, unread_count, read_up_to_id, updated_at)
+SELECT user_id, SUM(is_read = FALSE), 0, NOW(6) FROM notifications GROUP BY user_id
+ON DUPLICATE KEY UPDATE unread_count = VALUES(unread_count), updated_at = VALUES(updated_at);
@@ -0,0 +1,116 @@
+package com.finsecure.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+// Bounded executors per workload; audit events go through AuditAppender instead. Queue depth,
+// pool size and completions are published by Spring Boot's executor metrics under the bean
+// name; rejections are counted here.
+@Configuration
+@EnableAsync
+@Slf4j
+public class AsyncConfig implements AsyncConfigurer {
+
+    public static final String MAIL_EXECUTOR = "mailExecutor";
+    public static final String HASH_EXECUTOR = "hashExecutor";
+    public static final String SSE_EXECUTOR = "sseExecutor";
+
+    public enum RejectionPolicy { CALLER_RUNS, ABORT, DISCARD }
+
+    // Defining our own executors switches off Boot's default one, which MVC async
+    // (streamed statements) and unqualified @Async rely on, so declare it explicitly
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+        AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean(name = MAIL_EXECUTOR)
+    public ThreadPoolTaskExecutor mailExecutor(
+            @Value("${app.async.mail.core-size:2}") int coreSize,
+            @Value("${app.async.mail.max-size:8}") int maxSize,
+            @Value("${app.async.mail.queue-capacity:1000}") int queueCapacity,
+            @Value("${app.async.mail.rejection-policy:CALLER_RUNS}") RejectionPolicy policy,
+            @Value("${app.async.shutdown-await-seconds:30}") int awaitSeconds,
+            MeterRegistry meterRegistry) {
+        return boundedExecutor(MAIL_EXECUTOR, "mail-", coreSize, maxSize, queueCapacity, policy, awaitSeconds, meterRegistry);
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (ex, method, params) ->
+            log.error("Async task {}.{} failed: {}", method.getDeclaringClass().getSimpleName(), method.getName(), ex.getMessage(), ex);
+    }
+
+    // Password hashing is pure CPU: one thread per core, a short queue, and ABORT so overload
+    // turns into fast 503s instead of servlet threads waiting on BCrypt
+    @Bean(name = HASH_EXECUTOR)
+    public ThreadPoolTaskExecutor hashExecutor(
+            @Value("${app.async.hash.threads:0}") int threads,
+            @Value("${app.async.hash.queue-capacity:64}") int queueCapacity,
+            @Value("${app.async.shutdown-await-seconds:30}") int awaitSeconds,
+            MeterRegistry meterRegistry) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return boundedExecutor(HASH_EXECUTOR, "hash-", size, size, queueCapacity, RejectionPolicy.ABORT, awaitSeconds, meterRegistry);
+    }
+
+    // Writes queued notification events to open SSE streams. Idle streams hold no thread, so a
+    // few threads serve thousands of connections; a rejected drain closes that stream
+    @Bean(name = SSE_EXECUTOR)
+    public ThreadPoolTaskExecutor sseExecutor(
+            @Value("${app.async.sse.core-size:2}") int coreSize,
+            @Value("${app.async.sse.max-size:8}") int maxSize,
+            @Value("${app.async.sse.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.async.shutdown-await-seconds:30}") int awaitSeconds,
+            MeterRegistry meterRegistry) {
+        return boundedExecutor(SSE_EXECUTOR, "sse-", coreSize, maxSize, queueCapacity, RejectionPolicy.ABORT, awaitSeconds, meterRegistry);
+    }
+
+    private ThreadPoolTaskExecutor boundedExecutor(String name, String threadPrefix, int coreSize, int maxSize,
+                                                   int queueCapacity, RejectionPolicy policy, int awaitSeconds,
+                                                   MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadPrefix);
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(countingHandler(name, policy, meterRegistry));
+        // Keep accepting work from requests that are still finishing during graceful shutdown,
+        // then drain the queue before the context goes away
+        executor.setAcceptTasksAfterContextClose(true);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(awaitSeconds);
+        return executor;
+    }
+
+    private RejectedExecutionHandler countingHandler(String name, RejectionPolicy policy, MeterRegistry meterRegistry) {
+        Counter rejected = Counter.builder("finsecure.async.rejected")
+            .tag("executor", name)
+            .tag("policy", policy.name())
+            .register(meterRegistry);
+        RejectedExecutionHandler delegate = switch (policy) {
+            case CALLER_RUNS -> new ThreadPoolExecutor.CallerRunsPolicy();
+            case ABORT -> new ThreadPoolExecutor.AbortPolicy();
+            case DISCARD -> new ThreadPoolExecutor.DiscardPolicy();
+        };
+        return (task, pool) -> {
+            rejected.increment();
+            log.warn("Executor {} saturated (queue={}), applying {}", name, pool.getQueue().size(), policy);
+            delegate.rejectedExecution(task, pool);
+        };
+    }
+}
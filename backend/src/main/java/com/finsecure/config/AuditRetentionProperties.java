@@ -0,0 +1,34 @@
+package com.finsecure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.audit.retention")
+@Getter @Setter
+public class AuditRetentionProperties {
+
+    // Retention for any action without its own entry below
+    private int defaultDays = 365;
+
+    // Per-action overrides, e.g. app.audit.retention.actions.LOGIN=90
+    private Map<String, Integer> actions = new LinkedHashMap<>();
+
+    // Rows archived and deleted per statement; each chunk is its own short transaction
+    private int chunkSize = 1000;
+
+    // Pause between chunks so purge I/O never crowds out the audit write path
+    private long pauseMs = 50;
+
+    // Upper bounds for a single run; the remainder is picked up by the next run
+    private long maxRowsPerRun = 2_000_000;
+    private int maxRunMinutes = 60;
+
+    private boolean archiveEnabled = true;
+    private String archiveDir = "data/audit-archive";
+}
@@ -0,0 +1,37 @@
+package com.finsecure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.rate-limit")
+@Getter @Setter
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Upper bound on tracked identities and IPs; least recently used buckets are dropped first
+    private long maxKeys = 500_000;
+
+    // Per endpoint, e.g. app.rate-limit.policies.login.identity.burst=5; a missing limit is unlimited
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    @Getter @Setter
+    public static class Policy {
+        private Limit identity;
+        private Limit ip;
+    }
+
+    // Up to burst requests at once, refilling at burst per period
+    @Getter @Setter
+    public static class Limit {
+        private int burst;
+        private Duration period = Duration.ofMinutes(1);
+    }
+}
@@ -0,0 +1,69 @@
+package com.finsecure.config;
+
+import com.finsecure.entity.Account.AccountType;
+import com.finsecure.entity.Card.CardType;
+import com.finsecure.entity.CardAuthorization;
+import com.finsecure.entity.Transaction.TransactionMode;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.velocity")
+@Getter @Setter
+public class VelocityLimitProperties {
+
+    private boolean enabled = true;
+
+    // e.g. app.velocity.accounts.SAVINGS.UPI.daily=100000; a missing entry means no limit
+    private Map<AccountType, Map<Channel, Limit>> accounts = new LinkedHashMap<>();
+
+    // e.g. app.velocity.cards.CREDIT.ATM.hourly=10000
+    private Map<CardType, Map<Channel, Limit>> cards = new LinkedHashMap<>();
+
+    // Rows per round trip when replaying the last 24 hours of spend at startup
+    private int rebuildFetchSize = 1000;
+
+    @Getter @Setter
+    public static class Limit {
+        // Rolling 60 minutes and rolling 24 hours; null means unlimited
+        private BigDecimal hourly;
+        private BigDecimal daily;
+    }
+
+    public enum Channel {
+        ATM, POS, ONLINE, UPI, TRANSFER;
+
+        public static Channel of(TransactionMode mode) {
+            return switch (mode) {
+                case ATM -> ATM;
+                case UPI -> UPI;
+                case ONLINE -> ONLINE;
+                default -> TRANSFER;
+            };
+        }
+
+        public static Channel of(CardAuthorization.Channel channel) {
+            return switch (channel) {
+                case ATM -> ATM;
+                case ONLINE -> ONLINE;
+                case POS, CONTACTLESS -> POS;
+            };
+        }
+    }
+
+    public Limit limitFor(AccountType accountType, Channel channel) {
+        Map<Channel, Limit> byChannel = accounts.get(accountType);
+        return byChannel != null ? byChannel.get(channel) : null;
+    }
+
+    public Limit limitFor(CardType cardType, Channel channel) {
+        Map<Channel, Limit> byChannel = cards.get(cardType);
+        return byChannel != null ? byChannel.get(channel) : null;
+    }
+}
@@ -1,37 +1,61 @@
 package com.finsecure.controller;
 
 import com.finsecure.dto.*;
+import com.finsecure.security.ClientIpResolver;
+import com.finsecure.security.RateLimiter;
 import com.finsecure.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
 public class AuthController {
 
     private final AuthService authService;
+    private final RateLimiter rateLimiter;
+    private final ClientIpResolver clientIpResolver;
 
     @PostMapping("/register")
-    public ResponseEntity<ApiResponse<String>> register(@Valid @RequestBody RegisterRequest request) {
-        ApiResponse<String> response = authService.register(request);
-        return response.isSuccess()
-            ? ResponseEntity.status(201).body(response)
-            : ResponseEntity.badRequest().body(response);
+    public CompletableFuture<ResponseEntity<ApiResponse<String>>> register(
+            @Valid @RequestBody RegisterRequest request, HttpServletRequest http) {
+        long retryAfter = rateLimiter.tryAcquire("register", request.getEmail(), clientIpResolver.resolve(http));
+        if (retryAfter > 0) return CompletableFuture.completedFuture(throttled(retryAfter));
+
+        return authService.register(request)
+            .thenApply(response -> response.isSuccess()
+                ? ResponseEntity.status(201).body(response)
+                : ResponseEntity.badRequest().body(response))
+            .exceptionally(AuthController::busyOrRethrow);
     }
 
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<LoginResponse>> login(@Valid @RequestBody LoginRequest request) {
-        ApiResponse<LoginResponse> response = authService.login(request);
-        return response.isSuccess()
-            ? ResponseEntity.ok(response)
-            : ResponseEntity.status(401).body(response);
+    public CompletableFuture<ResponseEntity<ApiResponse<LoginResponse>>> login(
+            @Valid @RequestBody LoginRequest request, HttpServletRequest http) {
+        long retryAfter = rateLimiter.tryAcquire("login", request.getIdentifier(), clientIpResolver.resolve(http));
+        if (retryAfter > 0) return CompletableFuture.completedFuture(throttled(retryAfter));
+
+        return authService.login(request)
+            .thenApply(response -> response.isSuccess()
+                ? ResponseEntity.ok(response)
+                : ResponseEntity.status(401).body(response))
+            .exceptionally(AuthController::busyOrRethrow);
     }
 
     @PostMapping("/otp/send")
-    public ResponseEntity<ApiResponse<String>> sendOtp(@Valid @RequestBody OtpRequest request) {
+    public ResponseEntity<ApiResponse<String>> sendOtp(@Valid @RequestBody OtpRequest request, HttpServletRequest http) {
+        long retryAfter = rateLimiter.tryAcquire("otp-send", request.getEmail(), clientIpResolver.resolve(http));
+        if (retryAfter > 0) return throttled(retryAfter);
+
         ApiResponse<String> response = authService.sendOtp(request);
         return response.isSuccess()
             ? ResponseEntity.ok(response)
@@ -39,7 +63,10 @@ public class AuthController {
     }
 
     @PostMapping("/otp/verify")
-    public ResponseEntity<ApiResponse<String>> verifyOtp(@Valid @RequestBody OtpVerificationRequest request) {
+    public ResponseEntity<ApiResponse<String>> verifyOtp(@Valid @RequestBody OtpVerificationRequest request, HttpServletRequest http) {
+        long retryAfter = rateLimiter.tryAcquire("otp-verify", request.getEmail(), clientIpResolver.resolve(http));
+        if (retryAfter > 0) return throttled(retryAfter);
+
         ApiResponse<String> response = authService.verifyOtp(request);
         return response.isSuccess()
             ? ResponseEntity.ok(response)
@@ -50,4 +77,21 @@ public class AuthController {
     public ResponseEntity<ApiResponse<String>> health() {
         return ResponseEntity.ok(ApiResponse.success("FinSecure API is running"));
     }
+
+    // The hash pool is full or the request waited too long for it
+    private static <T> ResponseEntity<ApiResponse<T>> busyOrRethrow(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResponse.error("Server is busy, please try again shortly", "SERVER_BUSY"));
+        }
+        throw failure instanceof CompletionException completion ? completion : new CompletionException(cause);
+    }
+
+    private static <T> ResponseEntity<ApiResponse<T>> throttled(long retryAfterSeconds) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+            .body(ApiResponse.error("Too many requests, please try again later", "RATE_LIMITED"));
+    }
 }
@@ -2,16 +2,26 @@ package com.finsecure.controller;
 
 import com.finsecure.dto.*;
 import com.finsecure.service.*;
+import com.finsecure.service.StatementService.ExportPermit;
+import com.finsecure.service.StatementService.StatementFormat;
+import com.finsecure.service.StatementService.StatementRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -22,8 +32,11 @@ public class CustomerController {
 
     private final CustomerService customerService;
     private final TransactionService transactionService;
+    private final BulkTransferService bulkTransferService;
+    private final StatementService statementService;
     private final CardService cardService;
     private final NotificationService notificationService;
+    private final NotificationStream notificationStream;
 
     // === PROFILE ===
     @GetMapping("/profile")
@@ -56,6 +69,17 @@ public class CustomerController {
         }
     }
 
+    @PostMapping("/transactions/bulk-transfer")
+    public ResponseEntity<ApiResponse<BulkTransferResponse>> bulkTransfer(
+            @Valid @RequestBody BulkTransferRequest request, Authentication auth) {
+        try {
+            BulkTransferResponse result = bulkTransferService.processBulkTransfer(request, auth.getName());
+            return ResponseEntity.ok(ApiResponse.success(result, "Bulk transfer processed"));
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage(), "BULK_TRANSFER_FAILED"));
+        }
+    }
+
     @GetMapping("/transactions/{accountId}")
     public ResponseEntity<ApiResponse<Page<TransactionResponse>>> getTransactions(
             @PathVariable Long accountId,
@@ -66,6 +90,63 @@ public class CustomerController {
         return ResponseEntity.ok(ApiResponse.success(txns, "Transactions retrieved"));
     }
 
+    @GetMapping("/transactions/history")
+    public ResponseEntity<ApiResponse<CursorPage<TransactionResponse>>> getTransactionHistory(
+            Authentication auth,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            CursorPage<TransactionResponse> txns = transactionService.getCustomerTransactionHistory(auth.getName(), cursor, size);
+            return ResponseEntity.ok(ApiResponse.success(txns, "Transactions retrieved"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage(), "HISTORY_FAILED"));
+        }
+    }
+
+    @GetMapping("/transactions/{accountId}/history")
+    public ResponseEntity<ApiResponse<CursorPage<TransactionResponse>>> getAccountTransactionHistory(
+            @PathVariable Long accountId,
+            Authentication auth,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            CursorPage<TransactionResponse> txns = transactionService.getTransactionHistory(accountId, cursor, size, auth.getName());
+            return ResponseEntity.ok(ApiResponse.success(txns, "Transactions retrieved"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage(), "HISTORY_FAILED"));
+        }
+    }
+
+    @GetMapping("/accounts/{accountId}/statement")
+    public ResponseEntity<?> exportStatement(
+            @PathVariable Long accountId,
+            Authentication auth,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format) {
+        try {
+            StatementFormat statementFormat = StatementFormat.parse(format);
+            StatementRequest statement = statementService.prepareStatement(accountId, from, to, auth.getName());
+            ExportPermit permit = statementService.acquireExport();
+            StreamingResponseBody body = out -> {
+                try (permit) {
+                    statementService.writeStatement(statement, statementFormat, out);
+                }
+            };
+            return ResponseEntity.ok()
+                .contentType(statementFormat == StatementFormat.PDF ? MediaType.APPLICATION_PDF : new MediaType("text", "csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename(statementService.fileName(statement, statementFormat)).build().toString())
+                .body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage(), "STATEMENT_FAILED"));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .body(ApiResponse.error(e.getMessage(), "STATEMENT_BUSY"));
+        }
+    }
+
     // === LOANS ===
     @PostMapping("/loans/apply")
     public ResponseEntity<ApiResponse<LoanResponse>> applyForLoan(
@@ -129,14 +210,48 @@ public class CustomerController {
     public ResponseEntity<ApiResponse<Page<NotificationResponse>>> getNotifications(
             Authentication auth,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        // We need userId - fetch it from customer service
-        Page<NotificationResponse> notifications = Page.empty();
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean unread) {
+        Long userId = notificationService.resolveUserId(auth.getName());
+        // Newest first by id, which walks the (user_id, id) index instead of sorting
+        Page<NotificationResponse> notifications = notificationService.getNotifications(
+            userId, unread, PageRequest.of(page, Math.min(size, 100), Sort.by("id").descending()));
         return ResponseEntity.ok(ApiResponse.success(notifications, "Notifications retrieved"));
     }
 
+    @GetMapping("/notifications/unread-count")
+    public ResponseEntity<ApiResponse<Long>> getUnreadNotificationCount(Authentication auth) {
+        Long userId = notificationService.resolveUserId(auth.getName());
+        return ResponseEntity.ok(ApiResponse.success(notificationService.getUnreadCount(userId), "Unread count retrieved"));
+    }
+
+    // Server-sent events: "unread" with the current count on connect, then one "notification"
+    // event per new notification. A "resync" event means events were dropped; reload via REST.
+    @GetMapping("/notifications/stream")
+    public ResponseEntity<?> streamNotifications(Authentication auth) {
+        Long userId = notificationService.resolveUserId(auth.getName());
+        try {
+            SseEmitter emitter = notificationStream.subscribe(userId, notificationService.getUnreadCount(userId));
+            return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).body(ApiResponse.error(e.getMessage(), "STREAM_UNAVAILABLE"));
+        }
+    }
+
+    @PostMapping("/notifications/{notificationId}/read")
+    public ResponseEntity<ApiResponse<String>> markNotificationRead(@PathVariable Long notificationId, Authentication auth) {
+        Long userId = notificationService.resolveUserId(auth.getName());
+        notificationService.markAsRead(userId, notificationId);
+        return ResponseEntity.ok(ApiResponse.success("Notification marked as read"));
+    }
+
     @PostMapping("/notifications/read-all")
     public ResponseEntity<ApiResponse<String>> markAllNotificationsRead(Authentication auth) {
+        notificationService.markAllAsRead(notificationService.resolveUserId(auth.getName()));
         return ResponseEntity.ok(ApiResponse.success("All notifications marked as read"));
     }
 }
@@ -1,17 +1,20 @@
 package com.finsecure.controller;
 
 import com.finsecure.dto.*;
+import com.finsecure.service.CardAuthorizationService;
 import com.finsecure.service.EmployeeService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -21,6 +24,7 @@ import java.util.Map;
 public class EmployeeController {
 
     private final EmployeeService employeeService;
+    private final CardAuthorizationService cardAuthorizationService;
 
     // === CUSTOMER MANAGEMENT ===
     @GetMapping("/customers")
@@ -55,6 +59,32 @@ public class EmployeeController {
             return ResponseEntity.ok(ApiResponse.success(doc, "KYC document " + request.getAction() + "d successfully"));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage(), "KYC_FAILED"));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage(), "KYC_CONFLICT"));
+        }
+    }
+
+    // Claims up to size documents (including those already held) under a renewable lease
+    @PostMapping("/kyc/claim")
+    public ResponseEntity<ApiResponse<List<KycDocumentResponse>>> claimKyc(
+            @RequestParam(defaultValue = "5") int size, Authentication auth) {
+        try {
+            List<KycDocumentResponse> docs = employeeService.claimKycDocuments(size, auth.getName());
+            return ResponseEntity.ok(ApiResponse.success(docs, docs.size() + " KYC documents claimed"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage(), "KYC_FAILED"));
+        }
+    }
+
+    @PostMapping("/kyc/{documentId}/release")
+    public ResponseEntity<ApiResponse<Void>> releaseKyc(@PathVariable Long documentId, Authentication auth) {
+        try {
+            employeeService.releaseKycDocument(documentId, auth.getName());
+            return ResponseEntity.ok(ApiResponse.success("KYC document returned to the queue"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage(), "KYC_FAILED"));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage(), "KYC_CONFLICT"));
         }
     }
 
@@ -83,11 +113,59 @@ public class EmployeeController {
         }
     }
 
+    // === USER ADMINISTRATION ===
+    @PatchMapping("/users/{userId}/status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Void>> updateUserStatus(
+            @PathVariable Long userId,
+            @Valid @RequestBody UserStatusRequest request,
+            Authentication auth) {
+        try {
+            employeeService.updateUserStatus(userId, request, auth.getName());
+            return ResponseEntity.ok(ApiResponse.success(request.getActive() ? "User enabled" : "User disabled"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage(), "USER_STATUS_FAILED"));
+        }
+    }
+
+    // === CARD AUTHORIZATIONS ===
+    // A decline is a normal outcome and is returned with 200; only malformed requests fail
+    @PostMapping("/cards/authorizations")
+    public ResponseEntity<ApiResponse<CardAuthorizationResponse>> authorizeCard(
+            @Valid @RequestBody CardAuthorizationRequest request) {
+        CardAuthorizationResponse result = cardAuthorizationService.authorize(request);
+        return ResponseEntity.ok(ApiResponse.success(result, "Authorization " + result.getStatus().name().toLowerCase()));
+    }
+
+    @PostMapping("/cards/authorizations/{authorizationId}/capture")
+    public ResponseEntity<ApiResponse<CardAuthorizationResponse>> captureAuthorization(
+            @PathVariable Long authorizationId,
+            @Valid @RequestBody(required = false) CardCaptureRequest request) {
+        try {
+            CardAuthorizationResponse result = cardAuthorizationService.capture(
+                authorizationId, request != null ? request.getAmount() : null);
+            return ResponseEntity.ok(ApiResponse.success(result, "Authorization captured"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage(), "CARD_AUTHORIZATION_FAILED"));
+        }
+    }
+
+    @PostMapping("/cards/authorizations/{authorizationId}/reverse")
+    public ResponseEntity<ApiResponse<CardAuthorizationResponse>> reverseAuthorization(@PathVariable Long authorizationId) {
+        try {
+            CardAuthorizationResponse result = cardAuthorizationService.reverse(authorizationId);
+            return ResponseEntity.ok(ApiResponse.success(result, "Authorization reversed"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage(), "CARD_AUTHORIZATION_FAILED"));
+        }
+    }
+
     @GetMapping("/dashboard")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getEmployeeDashboard() {
         Map<String, Object> data = Map.of(
             "message", "Employee dashboard loaded",
-            "status", "operational"
+            "status", "operational",
+            "kycQueue", employeeService.getKycQueueStats()
         );
         return ResponseEntity.ok(ApiResponse.success(data, "Dashboard loaded"));
     }
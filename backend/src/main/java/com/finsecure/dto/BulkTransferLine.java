@@ -0,0 +1,16 @@
+package com.finsecure.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+// Not bean-validated: BulkTransferService checks each line and reports failures per line
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class BulkTransferLine {
+
+    private String toAccountNumber;
+
+    private BigDecimal amount;
+
+    private String description;
+}
@@ -0,0 +1,16 @@
+package com.finsecure.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class BulkTransferLineResult {
+
+    private Integer lineNumber;
+    private String toAccountNumber;
+    private BigDecimal amount;
+    private String status;
+    private String referenceNumber;
+    private String message;
+}
@@ -0,0 +1,27 @@
+package com.finsecure.dto;
+
+import com.finsecure.entity.Transaction.TransactionMode;
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.util.List;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class BulkTransferRequest {
+
+    @NotBlank(message = "Source account number is required")
+    private String fromAccountNumber;
+
+    @NotNull(message = "Transaction mode is required")
+    private TransactionMode mode;
+
+    @Size(max = 200, message = "Description cannot exceed 200 characters")
+    private String description;
+
+    private String otpCode;
+
+    @NotEmpty(message = "At least one transfer line is required")
+    @Size(max = 50000, message = "A bulk transfer cannot exceed 50,000 lines")
+    // Lines are validated one by one in BulkTransferService so a bad line is rejected on its own
+    private List<BulkTransferLine> lines;
+}
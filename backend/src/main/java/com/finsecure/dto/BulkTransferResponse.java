@@ -0,0 +1,19 @@
+package com.finsecure.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class BulkTransferResponse {
+
+    private String fromAccountNumber;
+    private String debitReferenceNumber;
+    private Integer totalLines;
+    private Integer successfulLines;
+    private Integer rejectedLines;
+    private BigDecimal totalDebited;
+    private BigDecimal balanceAfter;
+    private List<BulkTransferLineResult> results;
+}
@@ -0,0 +1,31 @@
+package com.finsecure.dto;
+
+import com.finsecure.entity.CardAuthorization.Channel;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class CardAuthorizationRequest {
+
+    @NotBlank(message = "Card number is required")
+    private String cardNumber;
+
+    private String cvv;
+
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Amount must be positive")
+    @Digits(integer = 10, fraction = 2, message = "Amount must have at most 2 decimal places")
+    private BigDecimal amount;
+
+    @NotNull(message = "Channel is required")
+    private Channel channel;
+
+    private boolean international;
+
+    private String merchantName;
+}
@@ -0,0 +1,17 @@
+package com.finsecure.dto;
+
+import com.finsecure.entity.CardAuthorization.AuthorizationStatus;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class CardAuthorizationResponse {
+
+    private Long authorizationId;
+    private Long cardId;
+    private AuthorizationStatus status;
+    private String declineReason;
+    private BigDecimal amount;
+    private BigDecimal availableLimit;
+}
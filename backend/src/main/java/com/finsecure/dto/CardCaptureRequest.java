@@ -0,0 +1,16 @@
+package com.finsecure.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class CardCaptureRequest {
+
+    // Defaults to the full authorized amount; a smaller amount releases the difference
+    @DecimalMin(value = "0.01", message = "Amount must be positive")
+    @Digits(integer = 10, fraction = 2, message = "Amount must have at most 2 decimal places")
+    private BigDecimal amount;
+}
@@ -17,5 +17,8 @@ public class KycDocumentResponse {
     private DocumentStatus status;
     private String rejectionReason;
     private LocalDateTime verifiedAt;
+    private Integer priority;
+    private Long claimedBy;
+    private LocalDateTime leaseExpiresAt;
     private LocalDateTime createdAt;
 }
@@ -0,0 +1,13 @@
+package com.finsecure.dto;
+
+import lombok.*;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class KycQueueStatsResponse {
+
+    private long queued;
+    private long inReview;
+    private long oldestWaitingMinutes;
+    private long reviewedLastHour;
+    private long leaseMinutes;
+}
@@ -0,0 +1,13 @@
+package com.finsecure.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class UserStatusRequest {
+
+    @NotNull(message = "Active flag is required")
+    private Boolean active;
+
+    private String reason;
+}
@@ -10,7 +10,7 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "audit_logs", indexes = {
     @Index(name = "idx_audit_user", columnList = "userId"),
-    @Index(name = "idx_audit_action", columnList = "action"),
+    @Index(name = "idx_audit_action_created", columnList = "action, createdAt"),
     @Index(name = "idx_audit_created", columnList = "createdAt")
 })
 @EntityListeners(AuditingEntityListener.class)
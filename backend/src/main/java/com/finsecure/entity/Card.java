@@ -13,7 +13,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "cards", indexes = {
     @Index(name = "idx_cards_number", columnList = "maskedCardNumber"),
-    @Index(name = "idx_cards_account", columnList = "account_id")
+    @Index(name = "idx_cards_account", columnList = "account_id"),
+    @Index(name = "idx_cards_number_hash", columnList = "cardNumberHash", unique = true)
 })
 @EntityListeners(AuditingEntityListener.class)
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
@@ -34,7 +35,8 @@ public class Card {
     @Column(nullable = false, length = 20)
     private String maskedCardNumber;
 
-    @Column(nullable = false)
+    // HMAC-SHA256 of the PAN (hex), see CardVault
+    @Column(nullable = false, length = 64)
     private String cardNumberHash;
 
     @Column(nullable = false, length = 200)
@@ -43,7 +45,8 @@ public class Card {
     @Column(nullable = false)
     private LocalDate expiryDate;
 
-    @Column(nullable = false)
+    // Salted HMAC of the CVV, "salt:mac" in base64
+    @Column(nullable = false, length = 100)
     private String cvvHash;
 
     @Enumerated(EnumType.STRING)
@@ -54,7 +57,8 @@ public class Card {
     @Column(precision = 12, scale = 2)
     private BigDecimal creditLimit;
 
-    @Column(precision = 12, scale = 2)
+    // Owned by CardLimitLedger once the card is issued; only CardAuthorizationWriter updates it
+    @Column(precision = 12, scale = 2, updatable = false)
     @Builder.Default
     private BigDecimal availableLimit = BigDecimal.ZERO;
 
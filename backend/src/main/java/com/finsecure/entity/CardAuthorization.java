@@ -0,0 +1,63 @@
+package com.finsecure.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Rows are written asynchronously by CardAuthorizationWriter; ids come from IdGenerator so
+// the authorization id can be returned before the row exists
+@Entity
+@Table(name = "card_authorizations", indexes = {
+    @Index(name = "idx_card_auth_card", columnList = "card_id, createdAt"),
+    @Index(name = "idx_card_auth_status", columnList = "status"),
+    @Index(name = "idx_card_auth_created", columnList = "createdAt")
+})
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class CardAuthorization {
+
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "card_id", nullable = false)
+    private Card card;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal amount;
+
+    @Column(precision = 12, scale = 2)
+    private BigDecimal capturedAmount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Channel channel;
+
+    @Column(nullable = false)
+    private Boolean international;
+
+    @Column(length = 100)
+    private String merchantName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private AuthorizationStatus status;
+
+    @Column(length = 50)
+    private String declineReason;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public enum Channel {
+        POS, ONLINE, CONTACTLESS, ATM
+    }
+
+    public enum AuthorizationStatus {
+        APPROVED, DECLINED, CAPTURED, REVERSED
+    }
+}
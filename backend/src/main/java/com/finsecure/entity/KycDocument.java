@@ -11,7 +11,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "kyc_documents", indexes = {
     @Index(name = "idx_kyc_customer", columnList = "customer_id"),
-    @Index(name = "idx_kyc_status", columnList = "status")
+    @Index(name = "idx_kyc_status", columnList = "status"),
+    @Index(name = "idx_kyc_queue", columnList = "status, queueRankAt")
 })
 @EntityListeners(AuditingEntityListener.class)
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
@@ -56,6 +57,27 @@ public class KycDocument {
     @Column
     private LocalDateTime verifiedAt;
 
+    // Review queue lease: the reviewer (users.id) holding the document until leaseExpiresAt.
+    // claimedAt is the most recent claim and survives a release or an expired lease
+    @Column(name = "claimed_by")
+    private Long claimedBy;
+
+    @Column
+    private LocalDateTime claimedAt;
+
+    @Column
+    private LocalDateTime leaseExpiresAt;
+
+    // Customer tier when uploaded: 0 standard, 1 premium, 2 private
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer priority = 0;
+
+    // Queue order: upload time minus the tier's head start, so a higher tier jumps ahead
+    // by a bounded amount and older standard documents are never starved
+    @Column(nullable = false)
+    private LocalDateTime queueRankAt;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -9,8 +9,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "notifications", indexes = {
-    @Index(name = "idx_notif_user", columnList = "user_id"),
-    @Index(name = "idx_notif_read", columnList = "isRead")
+    @Index(name = "idx_notif_user_id", columnList = "user_id, id")
 })
 @EntityListeners(AuditingEntityListener.class)
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
@@ -34,6 +33,7 @@ public class Notification {
     @Column(nullable = false, length = 1000)
     private String message;
 
+    // Only set for notifications read one by one above the user's read_up_to_id watermark
     @Column(nullable = false)
     @Builder.Default
     private Boolean isRead = false;
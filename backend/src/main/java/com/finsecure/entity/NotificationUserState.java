@@ -0,0 +1,28 @@
+package com.finsecure.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Unread badge counter and read watermark per user. Maintained by NotificationJdbcRepository
+// in the same transaction as the notification rows it counts, so it never needs a COUNT(*)
+// to read. Every notification with id <= readUpToId is read; "read all" only moves the mark.
+@Entity
+@Table(name = "notification_user_state")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class NotificationUserState {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long unreadCount;
+
+    @Column(nullable = false)
+    private Long readUpToId;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,64 @@
+package com.finsecure.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_events", indexes = {
+    @Index(name = "idx_outbox_due", columnList = "status, nextAttemptAt"),
+    @Index(name = "idx_outbox_processed", columnList = "processedAt"),
+    @Index(name = "idx_outbox_group", columnList = "groupKey, status")
+})
+@EntityListeners(AuditingEntityListener.class)
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private EventType eventType;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    // Events with the same key are coalesced into one delivery (see TransactionAlertDigest)
+    @Column(length = 150)
+    private String groupKey;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Column
+    private LocalDateTime processedAt;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public enum EventType {
+        NOTIFICATION, EMAIL
+    }
+
+    public enum OutboxStatus {
+        PENDING, PROCESSING, SENT, FAILED
+    }
+}
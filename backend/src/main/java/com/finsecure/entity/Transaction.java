@@ -11,7 +11,7 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "transactions", indexes = {
     @Index(name = "idx_transactions_ref", columnList = "referenceNumber"),
-    @Index(name = "idx_transactions_account", columnList = "account_id"),
+    @Index(name = "idx_transactions_account_created", columnList = "account_id, createdAt, id"),
     @Index(name = "idx_transactions_created", columnList = "createdAt")
 })
 @EntityListeners(AuditingEntityListener.class)
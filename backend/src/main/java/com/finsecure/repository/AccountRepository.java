@@ -3,10 +3,13 @@ package com.finsecure.repository;
 import com.finsecure.entity.Account;
 import com.finsecure.entity.Account.AccountStatus;
 import com.finsecure.entity.Account.AccountType;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +18,14 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
 
     Optional<Account> findByAccountNumber(String accountNumber);
 
+    @Query("SELECT a.id FROM Account a WHERE a.accountNumber = :accountNumber")
+    Optional<Long> findIdByAccountNumber(String accountNumber);
+
+    // Row lock for balance updates; callers must acquire multiple locks in ascending id order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.id = :id")
+    Optional<Account> findByIdForUpdate(Long id);
+
     List<Account> findByCustomerId(Long customerId);
 
     List<Account> findByCustomerIdAndStatus(Long customerId, AccountStatus status);
@@ -26,6 +37,17 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     @Query("SELECT a FROM Account a WHERE a.customer.user.email = :email AND a.status = 'ACTIVE'")
     List<Account> findActiveAccountsByUserEmail(String email);
 
+    @Query("SELECT a.id FROM Account a WHERE a.customer.user.email = :email")
+    List<Long> findIdsByUserEmail(String email);
+
+    boolean existsByIdAndCustomerUserEmail(Long id, String email);
+
+    @Query("SELECT a FROM Account a JOIN FETCH a.customer c WHERE a.id = :id AND c.user.email = :email")
+    Optional<Account> findOwnedWithCustomer(Long id, String email);
+
+    @Query("SELECT COALESCE(SUM(a.balance), 0) FROM Account a WHERE a.customer.id = :customerId AND a.status = 'ACTIVE'")
+    BigDecimal sumActiveBalanceByCustomerId(Long customerId);
+
     @Query("SELECT COUNT(a) FROM Account a WHERE a.customer.id = :customerId AND a.status = 'ACTIVE'")
     long countActiveAccountsByCustomerId(Long customerId);
 }
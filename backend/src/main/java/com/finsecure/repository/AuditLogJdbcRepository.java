@@ -0,0 +1,80 @@
+package com.finsecure.repository;
+
+import com.finsecure.entity.AuditLog;
+import com.finsecure.entity.AuditLog.AuditResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+// Chunked access for the audit retention job; every call is a short autocommit statement
+@Repository
+@RequiredArgsConstructor
+public class AuditLogJdbcRepository {
+
+    private static final String COLUMNS = "id, user_id, username, action, resource, resource_id, details, " +
+        "ip_address, user_agent, result, error_message, created_at";
+
+    private static final RowMapper<AuditLog> ROW_MAPPER = (rs, rowNum) -> AuditLog.builder()
+        .id(rs.getLong("id"))
+        .userId(rs.getLong("user_id"))
+        .username(rs.getString("username"))
+        .action(rs.getString("action"))
+        .resource(rs.getString("resource"))
+        .resourceId(rs.getString("resource_id"))
+        .details(rs.getString("details"))
+        .ipAddress(rs.getString("ip_address"))
+        .userAgent(rs.getString("user_agent"))
+        .result(AuditResult.valueOf(rs.getString("result")))
+        .errorMessage(rs.getString("error_message"))
+        .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+        .build();
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    // Served by idx_audit_action_created
+    public List<AuditLog> findExpiredByAction(String action, LocalDateTime cutoff, int limit) {
+        return namedJdbcTemplate.query(
+            "SELECT " + COLUMNS + " FROM audit_logs WHERE action = :action AND created_at < :cutoff " +
+            "ORDER BY created_at, id LIMIT :limit",
+            new MapSqlParameterSource()
+                .addValue("action", action)
+                .addValue("cutoff", Timestamp.valueOf(cutoff))
+                .addValue("limit", limit),
+            ROW_MAPPER);
+    }
+
+    // Served by idx_audit_created; actions with their own policy are skipped. Rows of those
+    // actions stay behind, so callers pass the last row seen to avoid rescanning them.
+    public List<AuditLog> findExpiredExcluding(Collection<String> excludedActions, LocalDateTime cutoff,
+                                               AuditLog after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("cutoff", Timestamp.valueOf(cutoff))
+            .addValue("limit", limit);
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMNS + " FROM audit_logs WHERE created_at < :cutoff ");
+        if (after != null) {
+            sql.append("AND (created_at > :afterCreatedAt OR (created_at = :afterCreatedAt AND id > :afterId)) ");
+            params.addValue("afterCreatedAt", Timestamp.valueOf(after.getCreatedAt()))
+                .addValue("afterId", after.getId());
+        }
+        if (!excludedActions.isEmpty()) {
+            sql.append("AND action NOT IN (:excluded) ");
+            params.addValue("excluded", excludedActions);
+        }
+        sql.append("ORDER BY created_at, id LIMIT :limit");
+        return namedJdbcTemplate.query(sql.toString(), params, ROW_MAPPER);
+    }
+
+    // Primary-key deletes lock only the listed rows, never the insert end of the table
+    public int deleteByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) return 0;
+        return namedJdbcTemplate.update("DELETE FROM audit_logs WHERE id IN (:ids)",
+            new MapSqlParameterSource("ids", ids));
+    }
+}
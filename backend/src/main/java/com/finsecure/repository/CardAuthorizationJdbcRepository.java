@@ -0,0 +1,107 @@
+package com.finsecure.repository;
+
+import com.finsecure.entity.Card.CardType;
+import com.finsecure.entity.CardAuthorization;
+import com.finsecure.entity.CardAuthorization.Channel;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Batched writes for the card authorization ledger
+@Repository
+@RequiredArgsConstructor
+public class CardAuthorizationJdbcRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record StatusChange(Long id, CardAuthorization.AuthorizationStatus status,
+                               BigDecimal capturedAmount, LocalDateTime updatedAt) {}
+
+    public record CardSpendRow(Long cardId, CardType cardType, Channel channel,
+                               BigDecimal amount, LocalDateTime createdAt) {}
+
+    public void insertAll(List<CardAuthorization> rows) {
+        if (rows.isEmpty()) return;
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO card_authorizations (id, card_id, amount, captured_amount, channel, international, " +
+            "merchant_name, status, decline_reason, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            rows, BATCH_SIZE, (ps, row) -> {
+                ps.setLong(1, row.getId());
+                ps.setLong(2, row.getCard().getId());
+                ps.setBigDecimal(3, row.getAmount());
+                ps.setBigDecimal(4, row.getCapturedAmount());
+                ps.setString(5, row.getChannel().name());
+                ps.setBoolean(6, row.getInternational());
+                ps.setString(7, row.getMerchantName());
+                ps.setString(8, row.getStatus().name());
+                ps.setString(9, row.getDeclineReason());
+                ps.setTimestamp(10, Timestamp.valueOf(row.getCreatedAt()));
+                ps.setTimestamp(11, Timestamp.valueOf(row.getUpdatedAt()));
+            });
+    }
+
+    public void updateStatuses(List<StatusChange> changes) {
+        if (changes.isEmpty()) return;
+        jdbcTemplate.batchUpdate(
+            "UPDATE card_authorizations SET status = ?, captured_amount = ?, updated_at = ? WHERE id = ?",
+            changes, BATCH_SIZE, (ps, change) -> {
+                ps.setString(1, change.status().name());
+                ps.setBigDecimal(2, change.capturedAmount());
+                ps.setTimestamp(3, Timestamp.valueOf(change.updatedAt()));
+                ps.setLong(4, change.id());
+            });
+    }
+
+    // Only an active card is blocked, so a replay cannot undo a later unblock or cancellation
+    public void blockCards(List<Long> cardIds, LocalDateTime updatedAt) {
+        if (cardIds.isEmpty()) return;
+        jdbcTemplate.batchUpdate(
+            "UPDATE cards SET status = 'BLOCKED', updated_at = ? WHERE id = ? AND status = 'ACTIVE'",
+            cardIds, BATCH_SIZE, (ps, cardId) -> {
+                ps.setTimestamp(1, Timestamp.valueOf(updatedAt));
+                ps.setLong(2, cardId);
+            });
+    }
+
+    // Absolute values from the in-memory ledger, so replays and reordering are harmless
+    public void updateAvailableLimits(Map<Long, BigDecimal> limits) {
+        if (limits.isEmpty()) return;
+        jdbcTemplate.batchUpdate(
+            "UPDATE cards SET available_limit = ? WHERE id = ?",
+            List.copyOf(limits.entrySet()), BATCH_SIZE, (ps, entry) -> {
+                ps.setBigDecimal(1, entry.getValue());
+                ps.setLong(2, entry.getKey());
+            });
+    }
+
+    // Approved and captured spend since the given time, for rebuilding velocity windows at startup
+    public void streamSpendSince(LocalDateTime since, int fetchSize, Consumer<CardSpendRow> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                "SELECT ca.card_id, c.card_type, ca.channel, COALESCE(ca.captured_amount, ca.amount), ca.created_at " +
+                "FROM card_authorizations ca JOIN cards c ON c.id = ca.card_id " +
+                "WHERE ca.created_at >= ? AND ca.status IN ('APPROVED', 'CAPTURED')",
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setTimestamp(1, Timestamp.valueOf(since));
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(new CardSpendRow(
+            rs.getLong(1),
+            CardType.valueOf(rs.getString(2)),
+            Channel.valueOf(rs.getString(3)),
+            rs.getBigDecimal(4),
+            rs.getTimestamp(5).toLocalDateTime())));
+    }
+}
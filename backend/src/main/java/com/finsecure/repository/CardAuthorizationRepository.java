@@ -0,0 +1,28 @@
+package com.finsecure.repository;
+
+import com.finsecure.entity.CardAuthorization;
+import com.finsecure.entity.CardAuthorization.AuthorizationStatus;
+import com.finsecure.entity.CardAuthorization.Channel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CardAuthorizationRepository extends JpaRepository<CardAuthorization, Long> {
+
+    interface OpenAuthorization {
+        Long getId();
+        Long getCardId();
+        BigDecimal getAmount();
+        Channel getChannel();
+        LocalDateTime getCreatedAt();
+    }
+
+    @Query("SELECT a.id AS id, a.card.id AS cardId, a.amount AS amount, a.channel AS channel, a.createdAt AS createdAt " +
+           "FROM CardAuthorization a WHERE a.status = :status")
+    List<OpenAuthorization> findOpenByStatus(AuthorizationStatus status);
+}
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CardRepository extends JpaRepository<Card, Long> {
@@ -22,4 +23,8 @@ public interface CardRepository extends JpaRepository<Card, Long> {
     List<Card> findActiveCardsByCustomerId(Long customerId);
 
     boolean existsByAccountIdAndCardType(Long accountId, CardType cardType);
+
+    Optional<Card> findByCardNumberHash(String cardNumberHash);
+
+    boolean existsByCardNumberHash(String cardNumberHash);
 }
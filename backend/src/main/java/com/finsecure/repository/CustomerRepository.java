@@ -27,6 +27,24 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     @Query("SELECT c FROM Customer c WHERE c.user.email = :email")
     Optional<Customer> findByUserEmail(String email);
 
+    @Query("SELECT c FROM Customer c JOIN FETCH c.user u WHERE u.email = :email")
+    Optional<Customer> findWithUserByUserEmail(String email);
+
+    // All dashboard counters in one round trip; each subquery is served by its own index
+    @Query(value = "SELECT " +
+        "(SELECT COUNT(*) FROM loans l WHERE l.customer_id = :customerId AND l.status IN ('ACTIVE', 'DISBURSED')) AS activeLoans, " +
+        "(SELECT COUNT(*) FROM cards c JOIN accounts a ON a.id = c.account_id " +
+        "WHERE a.customer_id = :customerId AND c.status = 'ACTIVE') AS activeCards, " +
+        "COALESCE((SELECT s.unread_count FROM notification_user_state s WHERE s.user_id = :userId), 0) AS unreadNotifications",
+        nativeQuery = true)
+    DashboardCounts countDashboardItems(Long customerId, Long userId);
+
+    interface DashboardCounts {
+        long getActiveLoans();
+        long getActiveCards();
+        long getUnreadNotifications();
+    }
+
     @Query("SELECT c FROM Customer c WHERE LOWER(c.firstName) LIKE LOWER(CONCAT('%',:name,'%')) OR LOWER(c.lastName) LIKE LOWER(CONCAT('%',:name,'%'))")
     Page<Customer> searchByName(String name, Pageable pageable);
 
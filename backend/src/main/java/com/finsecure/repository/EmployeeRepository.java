@@ -3,6 +3,7 @@ package com.finsecure.repository;
 import com.finsecure.entity.Employee;
 import com.finsecure.entity.Employee.Department;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,6 +14,10 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
 
     Optional<Employee> findByUserId(Long userId);
 
+    // Resolved through the unique users.email and employees.user_id indexes
+    @Query("SELECT e.id FROM Employee e WHERE e.user.email = :email")
+    Optional<Long> findIdByUserEmail(String email);
+
     Optional<Employee> findByEmployeeId(String employeeId);
 
     List<Employee> findByDepartment(Department department);
@@ -3,12 +3,15 @@ package com.finsecure.repository;
 import com.finsecure.entity.KycDocument;
 import com.finsecure.entity.KycDocument.DocumentStatus;
 import com.finsecure.entity.KycDocument.DocumentType;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,4 +28,39 @@ public interface KycDocumentRepository extends JpaRepository<KycDocument, Long>
     Page<KycDocument> findPendingDocuments(Pageable pageable);
 
     long countByCustomerIdAndStatus(Long customerId, DocumentStatus status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT k FROM KycDocument k WHERE k.id = :id")
+    Optional<KycDocument> findByIdForUpdate(Long id);
+
+    // Lock timeout -2 renders FOR UPDATE SKIP LOCKED, so reviewers claiming at the same time
+    // get disjoint documents. Unclaimed and lease-expired documents are both claimable.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT k FROM KycDocument k WHERE k.status IN :statuses " +
+           "AND (k.leaseExpiresAt IS NULL OR k.leaseExpiresAt < :now) ORDER BY k.queueRankAt ASC")
+    List<KycDocument> findClaimableForUpdate(Collection<DocumentStatus> statuses, LocalDateTime now, Pageable pageable);
+
+    @Query("SELECT k FROM KycDocument k JOIN FETCH k.customer WHERE k.claimedBy = :userId " +
+           "AND k.status = 'UNDER_REVIEW' AND k.leaseExpiresAt >= :now ORDER BY k.queueRankAt ASC")
+    List<KycDocument> findActiveClaims(Long userId, LocalDateTime now);
+
+    // Puts documents whose lease ran out back at their original place in the queue
+    @Modifying
+    @Query("UPDATE KycDocument k SET k.status = 'UPLOADED', k.claimedBy = NULL, " +
+           "k.leaseExpiresAt = NULL WHERE k.status = 'UNDER_REVIEW' AND k.leaseExpiresAt < :now")
+    int requeueExpired(LocalDateTime now);
+
+    @Query("SELECT COUNT(k) FROM KycDocument k WHERE k.status IN :statuses " +
+           "AND (k.leaseExpiresAt IS NULL OR k.leaseExpiresAt < :now)")
+    long countClaimable(Collection<DocumentStatus> statuses, LocalDateTime now);
+
+    @Query("SELECT COUNT(k) FROM KycDocument k WHERE k.status = 'UNDER_REVIEW' AND k.leaseExpiresAt >= :now")
+    long countInReview(LocalDateTime now);
+
+    @Query("SELECT MIN(k.createdAt) FROM KycDocument k WHERE k.status IN :statuses " +
+           "AND (k.leaseExpiresAt IS NULL OR k.leaseExpiresAt < :now)")
+    Optional<LocalDateTime> findOldestClaimable(Collection<DocumentStatus> statuses, LocalDateTime now);
+
+    long countByVerifiedAtAfter(LocalDateTime since);
 }
@@ -0,0 +1,200 @@
+package com.finsecure.repository;
+
+import com.finsecure.entity.Account.AccountStatus;
+import com.finsecure.entity.Account.AccountType;
+import com.finsecure.entity.Transaction.TransactionMode;
+import com.finsecure.entity.Transaction.TransactionStatus;
+import com.finsecure.entity.Transaction.TransactionType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+
+// Set-based ledger access for bulk and streaming paths; bypasses the persistence context,
+// so do not mix with managed Account updates for the same rows in one transaction
+@Repository
+@RequiredArgsConstructor
+public class LedgerJdbcRepository {
+
+    private static final int IN_CLAUSE_CHUNK = 1000;
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public record AccountRef(Long id, String accountNumber, AccountStatus status, Long userId) {}
+
+    public record LockedAccount(Long id, String accountNumber, BigDecimal balance, AccountStatus status) {}
+
+    public record StatementLine(LocalDateTime createdAt, String referenceNumber, TransactionType type,
+                                TransactionMode mode, BigDecimal amount, BigDecimal balanceAfter,
+                                String description, String targetAccountNumber) {}
+
+    public record LedgerRow(Long id, Long accountId, String referenceNumber, TransactionType type,
+                            TransactionMode mode, BigDecimal amount, BigDecimal balanceAfter, String description,
+                            String targetAccountNumber, TransactionStatus status, LocalDateTime createdAt) {}
+
+    public record LedgerEntry(String referenceNumber, Long accountId, TransactionType type, TransactionMode mode,
+                              BigDecimal amount, BigDecimal balanceAfter, String description,
+                              String targetAccountNumber, LocalDateTime createdAt) {}
+
+    public record DebitRow(Long accountId, AccountType accountType, TransactionMode mode,
+                           BigDecimal amount, LocalDateTime createdAt) {}
+
+    public Map<String, AccountRef> findByAccountNumbers(Collection<String> accountNumbers) {
+        Map<String, AccountRef> result = new HashMap<>(accountNumbers.size() * 2);
+        for (List<String> chunk : chunks(new ArrayList<>(accountNumbers))) {
+            namedJdbcTemplate.query(
+                "SELECT a.id, a.account_number, a.status, c.user_id FROM accounts a " +
+                "JOIN customers c ON c.id = a.customer_id WHERE a.account_number IN (:numbers)",
+                new MapSqlParameterSource("numbers", chunk),
+                rs -> {
+                    AccountRef ref = new AccountRef(rs.getLong(1), rs.getString(2),
+                        AccountStatus.valueOf(rs.getString(3)), rs.getLong(4));
+                    result.put(ref.accountNumber(), ref);
+                });
+        }
+        return result;
+    }
+
+    // Locks rows in ascending id order; chunks are issued in ascending order too, so the
+    // global lock order matches the single-transfer path and cannot deadlock against it
+    public Map<Long, LockedAccount> lockByIds(Collection<Long> ids) {
+        List<Long> sorted = new ArrayList<>(new TreeSet<>(ids));
+        Map<Long, LockedAccount> result = new HashMap<>(sorted.size() * 2);
+        for (List<Long> chunk : chunks(sorted)) {
+            namedJdbcTemplate.query(
+                "SELECT id, account_number, balance, status FROM accounts WHERE id IN (:ids) ORDER BY id FOR UPDATE",
+                new MapSqlParameterSource("ids", chunk),
+                rs -> {
+                    LockedAccount account = new LockedAccount(rs.getLong(1), rs.getString(2),
+                        rs.getBigDecimal(3), AccountStatus.valueOf(rs.getString(4)));
+                    result.put(account.id(), account);
+                });
+        }
+        return result;
+    }
+
+    public void updateBalances(Map<Long, BigDecimal> balances) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(
+            "UPDATE accounts SET balance = ?, updated_at = ? WHERE id = ?",
+            new ArrayList<>(balances.entrySet()), BATCH_SIZE,
+            (ps, entry) -> {
+                ps.setBigDecimal(1, entry.getValue());
+                ps.setTimestamp(2, now);
+                ps.setLong(3, entry.getKey());
+            });
+    }
+
+    public void insertTransactions(List<LedgerEntry> entries) {
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO transactions (reference_number, account_id, type, mode, amount, balance_after, " +
+            "description, target_account_number, status, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            entries, BATCH_SIZE,
+            (ps, entry) -> {
+                ps.setString(1, entry.referenceNumber());
+                ps.setLong(2, entry.accountId());
+                ps.setString(3, entry.type().name());
+                ps.setString(4, entry.mode().name());
+                ps.setBigDecimal(5, entry.amount());
+                ps.setBigDecimal(6, entry.balanceAfter());
+                ps.setString(7, entry.description());
+                ps.setString(8, entry.targetAccountNumber());
+                ps.setString(9, TransactionStatus.SUCCESS.name());
+                ps.setTimestamp(10, Timestamp.valueOf(entry.createdAt()));
+            });
+    }
+
+    // Newest rows across several accounts: the lateral subquery reads at most `limit` index
+    // entries per account from idx_transactions_account_created, so cost does not grow with history
+    public List<LedgerRow> findRecentByAccountIds(Collection<Long> accountIds, int limit) {
+        if (accountIds.isEmpty()) return List.of();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("ids", accountIds)
+            .addValue("limit", limit);
+        return namedJdbcTemplate.query(
+            "SELECT r.* FROM accounts a, LATERAL (" +
+            "SELECT t.id, t.account_id, t.reference_number, t.type, t.mode, t.amount, t.balance_after, " +
+            "t.description, t.target_account_number, t.status, t.created_at FROM transactions t " +
+            "WHERE t.account_id = a.id ORDER BY t.created_at DESC, t.id DESC LIMIT :limit) r " +
+            "WHERE a.id IN (:ids) ORDER BY r.created_at DESC, r.id DESC LIMIT :limit",
+            params,
+            (rs, rowNum) -> new LedgerRow(
+                rs.getLong("id"),
+                rs.getLong("account_id"),
+                rs.getString("reference_number"),
+                TransactionType.valueOf(rs.getString("type")),
+                TransactionMode.valueOf(rs.getString("mode")),
+                rs.getBigDecimal("amount"),
+                rs.getBigDecimal("balance_after"),
+                rs.getString("description"),
+                rs.getString("target_account_number"),
+                TransactionStatus.valueOf(rs.getString("status")),
+                rs.getTimestamp("created_at").toLocalDateTime()));
+    }
+
+    // Forward-only read with a bounded fetch size; with useCursorFetch the driver holds only
+    // one fetch window in memory, so a statement of any length streams in constant heap
+    public void streamStatement(Long accountId, LocalDateTime from, LocalDateTime to, int fetchSize,
+                                Consumer<StatementLine> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                "SELECT created_at, reference_number, type, mode, amount, balance_after, description, " +
+                "target_account_number FROM transactions WHERE account_id = ? AND created_at >= ? AND created_at < ? " +
+                "AND status = 'SUCCESS' " +
+                "ORDER BY created_at, id",
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setLong(1, accountId);
+            ps.setTimestamp(2, Timestamp.valueOf(from));
+            ps.setTimestamp(3, Timestamp.valueOf(to));
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(new StatementLine(
+            rs.getTimestamp(1).toLocalDateTime(),
+            rs.getString(2),
+            TransactionType.valueOf(rs.getString(3)),
+            TransactionMode.valueOf(rs.getString(4)),
+            rs.getBigDecimal(5),
+            rs.getBigDecimal(6),
+            rs.getString(7),
+            rs.getString(8))));
+    }
+
+    // Successful debits since the given time, for rebuilding velocity windows at startup
+    public void streamDebitsSince(LocalDateTime since, int fetchSize, Consumer<DebitRow> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                "SELECT t.account_id, a.account_type, t.mode, t.amount, t.created_at FROM transactions t " +
+                "JOIN accounts a ON a.id = t.account_id " +
+                "WHERE t.created_at >= ? AND t.type = 'DEBIT' AND t.status = 'SUCCESS'",
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setTimestamp(1, Timestamp.valueOf(since));
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(new DebitRow(
+            rs.getLong(1),
+            AccountType.valueOf(rs.getString(2)),
+            TransactionMode.valueOf(rs.getString(3)),
+            rs.getBigDecimal(4),
+            rs.getTimestamp(5).toLocalDateTime())));
+    }
+
+    private static <T> List<List<T>> chunks(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += IN_CLAUSE_CHUNK) {
+            chunks.add(items.subList(i, Math.min(i + IN_CLAUSE_CHUNK, items.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,123 @@
+package com.finsecure.repository;
+
+import com.finsecure.entity.Notification.NotificationType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Batched notification inserts and the per-user unread counter and read watermark that go with
+// them. Every writer locks the user's notification_user_state row before touching that user's
+// notifications, so counter, watermark and rows stay in step without locking notification rows.
+@Repository
+@RequiredArgsConstructor
+public class NotificationJdbcRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public record NewNotification(Long userId, NotificationType type, String title, String message,
+                                  String referenceId, String referenceType) {}
+
+    // Returns the generated ids in input order so the new rows can be pushed to live clients
+    public List<Long> insertAll(List<NewNotification> notifications, LocalDateTime createdAt) {
+        Timestamp now = Timestamp.valueOf(createdAt);
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(
+            "INSERT INTO notifications (user_id, type, title, message, is_read, reference_id, reference_type, created_at) " +
+            "VALUES (?, ?, ?, ?, FALSE, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    NewNotification n = notifications.get(i);
+                    ps.setLong(1, n.userId());
+                    ps.setString(2, n.type().name());
+                    ps.setString(3, n.title());
+                    ps.setString(4, n.message());
+                    ps.setString(5, n.referenceId());
+                    ps.setString(6, n.referenceType());
+                    ps.setTimestamp(7, now);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return notifications.size();
+                }
+            }, keys);
+        List<Long> ids = new ArrayList<>(notifications.size());
+        for (Map<String, Object> row : keys.getKeyList()) {
+            ids.add(((Number) row.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+
+    public Set<Long> findExistingUserIds(Collection<Long> userIds) {
+        Set<Long> existing = new HashSet<>();
+        namedJdbcTemplate.query("SELECT id FROM users WHERE id IN (:ids)",
+            new MapSqlParameterSource("ids", userIds), rs -> { existing.add(rs.getLong(1)); });
+        return existing;
+    }
+
+    // One upsert per user, in ascending user id order so concurrent batches lock counters consistently
+    public void addUnread(Map<Long, Long> increments) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO notification_user_state (user_id, unread_count, read_up_to_id, updated_at) VALUES (?, ?, 0, ?) " +
+            "ON DUPLICATE KEY UPDATE unread_count = unread_count + VALUES(unread_count), updated_at = VALUES(updated_at)",
+            new ArrayList<>(new TreeMap<>(increments).entrySet()), BATCH_SIZE, (ps, entry) -> {
+                ps.setLong(1, entry.getKey());
+                ps.setLong(2, entry.getValue());
+                ps.setTimestamp(3, now);
+            });
+    }
+
+    public void subtractUnread(Long userId, long count) {
+        if (count <= 0) return;
+        jdbcTemplate.update(
+            "UPDATE notification_user_state SET unread_count = GREATEST(unread_count - ?, 0), updated_at = ? WHERE user_id = ?",
+            count, Timestamp.valueOf(LocalDateTime.now()), userId);
+    }
+
+    // Read-all is a single-row write: the watermark moves to the newest notification and the
+    // counter resets. Evaluated under the state row lock, so the MAX sees every committed insert.
+    public void markAllRead(Long userId) {
+        jdbcTemplate.update(
+            "UPDATE notification_user_state SET unread_count = 0, updated_at = ?, " +
+            "read_up_to_id = GREATEST(read_up_to_id, COALESCE((SELECT MAX(n.id) FROM notifications n WHERE n.user_id = ?), 0)) " +
+            "WHERE user_id = ?",
+            Timestamp.valueOf(LocalDateTime.now()), userId, userId);
+    }
+
+    public long findReadWatermark(Long userId) {
+        return readUpToId("SELECT read_up_to_id FROM notification_user_state WHERE user_id = ?", userId);
+    }
+
+    // Held until commit so a concurrent read-all cannot move the watermark underneath the caller
+    public long lockReadWatermark(Long userId) {
+        return readUpToId("SELECT read_up_to_id FROM notification_user_state WHERE user_id = ? FOR UPDATE", userId);
+    }
+
+    public long findUnreadCount(Long userId) {
+        List<Long> counts = jdbcTemplate.queryForList(
+            "SELECT unread_count FROM notification_user_state WHERE user_id = ?", Long.class, userId);
+        return counts.isEmpty() ? 0 : counts.get(0);
+    }
+
+    private long readUpToId(String sql, Long userId) {
+        List<Long> marks = jdbcTemplate.queryForList(sql, Long.class, userId);
+        return marks.isEmpty() ? 0 : marks.get(0);
+    }
+}
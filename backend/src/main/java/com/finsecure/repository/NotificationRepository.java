@@ -14,12 +14,13 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
 
     Page<Notification> findByUserId(Long userId, Pageable pageable);
 
-    Page<Notification> findByUserIdAndIsRead(Long userId, Boolean isRead, Pageable pageable);
-
-    long countByUserIdAndIsRead(Long userId, Boolean isRead);
+    // Range scan over (user_id, id) above the user's read watermark
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId AND n.id > :readUpToId AND n.isRead = false")
+    Page<Notification> findUnread(Long userId, Long readUpToId, Pageable pageable);
 
+    // Callers only flip rows above the watermark; returns 0 when already read or not the owner's
     @Modifying
     @Transactional
-    @Query("UPDATE Notification n SET n.isRead = true WHERE n.user.id = :userId")
-    void markAllAsRead(Long userId);
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.id = :id AND n.user.id = :userId AND n.isRead = false")
+    int markAsRead(Long id, Long userId);
 }
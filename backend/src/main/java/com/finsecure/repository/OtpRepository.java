@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -22,6 +23,12 @@ public interface OtpRepository extends JpaRepository<Otp, Long> {
     @Query("UPDATE Otp o SET o.used = true WHERE o.email = :email AND o.purpose = :purpose")
     void invalidatePreviousOtps(String email, OtpPurpose purpose);
 
+    // Own transaction: a wrong code must stay counted when the caller's transaction rolls back
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("UPDATE Otp o SET o.attemptCount = o.attemptCount + 1 WHERE o.id = :id")
+    void incrementAttemptCount(Long id);
+
     @Modifying
     @Transactional
     @Query("DELETE FROM Otp o WHERE o.expiresAt < :now")
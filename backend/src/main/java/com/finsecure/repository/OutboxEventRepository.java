@@ -0,0 +1,39 @@
+package com.finsecure.repository;
+
+import com.finsecure.entity.OutboxEvent;
+import com.finsecure.entity.OutboxEvent.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Lock timeout -2 renders FOR UPDATE SKIP LOCKED, so concurrent dispatchers claim disjoint batches
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status IN :statuses AND e.nextAttemptAt <= :now ORDER BY e.id")
+    List<OutboxEvent> findDueForUpdate(Collection<OutboxStatus> statuses, LocalDateTime now, Pageable pageable);
+
+    // The rest of each group whose earliest event was just claimed, whatever their own due time
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.groupKey IN :groupKeys AND e.status = 'PENDING' ORDER BY e.id")
+    List<OutboxEvent> findGroupMembersForUpdate(Collection<String> groupKeys, Pageable pageable);
+
+    long countByGroupKeyAndStatus(String groupKey, OutboxStatus status);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = 'SENT', e.attempts = e.attempts + 1, e.processedAt = :now WHERE e.id IN :ids")
+    int markSent(Collection<Long> ids, LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = 'SENT' AND e.processedAt < :before")
+    int deleteSentBefore(LocalDateTime before);
+}
@@ -0,0 +1,40 @@
+package com.finsecure.repository;
+
+import com.finsecure.entity.OutboxEvent.EventType;
+import com.finsecure.entity.OutboxEvent.OutboxStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Batched outbox inserts for callers that queue many events in one transaction. OutboxEvent uses
+// an IDENTITY id, which stops Hibernate from batching its inserts.
+@Repository
+@RequiredArgsConstructor
+public class OutboxJdbcRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record NewOutboxEvent(EventType eventType, String payload, String groupKey, LocalDateTime nextAttemptAt) {}
+
+    public void insertAll(List<NewOutboxEvent> events, LocalDateTime createdAt) {
+        Timestamp now = Timestamp.valueOf(createdAt);
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO outbox_events (event_type, payload, status, attempts, next_attempt_at, group_key, created_at) " +
+            "VALUES (?, ?, ?, 0, ?, ?, ?)",
+            events, BATCH_SIZE,
+            (ps, event) -> {
+                ps.setString(1, event.eventType().name());
+                ps.setString(2, event.payload());
+                ps.setString(3, OutboxStatus.PENDING.name());
+                ps.setTimestamp(4, Timestamp.valueOf(event.nextAttemptAt()));
+                ps.setString(5, event.groupKey());
+                ps.setTimestamp(6, now);
+            });
+    }
+}
@@ -23,6 +23,15 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     @Query("SELECT t FROM Transaction t WHERE t.account.id = :accountId ORDER BY t.createdAt DESC")
     List<Transaction> findRecentByAccountId(Long accountId, Pageable pageable);
 
+    // Keyset pages over idx_transactions_account_created: (createdAt, id) descending, no COUNT query
+    @Query("SELECT t FROM Transaction t WHERE t.account.id = :accountId ORDER BY t.createdAt DESC, t.id DESC")
+    List<Transaction> findLatestByAccountId(Long accountId, Pageable pageable);
+
+    @Query("SELECT t FROM Transaction t WHERE t.account.id = :accountId " +
+           "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<Transaction> findByAccountIdBefore(Long accountId, LocalDateTime createdAt, Long id, Pageable pageable);
+
     @Query("SELECT t FROM Transaction t WHERE t.account.customer.id = :customerId ORDER BY t.createdAt DESC")
     Page<Transaction> findByCustomerId(Long customerId, Pageable pageable);
 
@@ -0,0 +1,37 @@
+package com.finsecure.security;
+
+import com.finsecure.repository.UserRepository;
+import com.finsecure.service.CacheEviction;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Enabled/disabled status per email for the JWT filter. Entries live for a few seconds so
+// a status change made on another node is honoured quickly; local changes evict directly.
+@Component
+public class ActiveUserCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, Boolean> statuses;
+
+    public ActiveUserCache(UserRepository userRepository,
+                           @Value("${app.security.user-status-ttl-seconds:30}") long ttlSeconds,
+                           @Value("${app.security.user-status-cache-size:100000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.statuses = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .build();
+    }
+
+    public boolean isActive(String email) {
+        return statuses.get(email, key -> userRepository.findActiveByEmail(key).orElse(false));
+    }
+
+    public void evict(String email) {
+        CacheEviction.nowAndAfterCompletion(() -> statuses.invalidate(email));
+    }
+}
@@ -0,0 +1,114 @@
+package com.finsecure.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Client address for auditing and rate limiting. X-Forwarded-For is only honoured when enabled
+// and the connection comes from one of the configured proxies (addresses or CIDR ranges);
+// otherwise any client could pick a fresh address per request. The header is read right to
+// left and the first hop that is not a trusted proxy is the client.
+@Component
+public class ClientIpResolver {
+
+    public static final String UNKNOWN = "UNKNOWN";
+
+    private final boolean trustForwardedFor;
+    private final List<Subnet> trustedProxies;
+
+    public ClientIpResolver(@Value("${app.security.trust-forwarded-for:false}") boolean trustForwardedFor,
+                            @Value("${app.security.trusted-proxies:}") List<String> trustedProxies) {
+        this.trustedProxies = new ArrayList<>();
+        for (String proxy : trustedProxies) {
+            if (!proxy.isBlank()) {
+                this.trustedProxies.add(Subnet.parse(proxy.trim()));
+            }
+        }
+        if (trustForwardedFor && this.trustedProxies.isEmpty()) {
+            throw new IllegalStateException("app.security.trust-forwarded-for needs app.security.trusted-proxies");
+        }
+        this.trustForwardedFor = trustForwardedFor;
+    }
+
+    public String resolve(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        if (!trustForwardedFor || !isTrustedProxy(remoteAddr)) {
+            return remoteAddr;
+        }
+        String xForwardedFor = request.getHeader("X-Forwarded-For");
+        if (xForwardedFor == null || xForwardedFor.isEmpty()) {
+            return remoteAddr;
+        }
+        String[] hops = xForwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (!hop.isEmpty() && !isTrustedProxy(hop)) {
+                return hop;
+            }
+        }
+        return remoteAddr;
+    }
+
+    // For callers without the request at hand; UNKNOWN outside a request thread
+    public String current() {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        return attributes != null ? resolve(attributes.getRequest()) : UNKNOWN;
+    }
+
+    private boolean isTrustedProxy(String address) {
+        byte[] bytes = literalBytes(address);
+        if (bytes == null) return false;
+        for (Subnet subnet : trustedProxies) {
+            if (subnet.contains(bytes)) return true;
+        }
+        return false;
+    }
+
+    // Only IP literals are accepted; a hostname in the header must never trigger a DNS lookup
+    private static byte[] literalBytes(String address) {
+        if (address.isEmpty() || !(Character.digit(address.charAt(0), 16) >= 0 || address.charAt(0) == ':')
+                || address.chars().anyMatch(c -> !(Character.digit(c, 16) >= 0 || c == '.' || c == ':'))) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(address).getAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private record Subnet(byte[] network, int prefix) {
+
+        static Subnet parse(String cidr) {
+            int slash = cidr.indexOf('/');
+            byte[] network = literalBytes(slash < 0 ? cidr : cidr.substring(0, slash));
+            if (network == null) {
+                throw new IllegalArgumentException("Invalid trusted proxy address: " + cidr);
+            }
+            int prefix = slash < 0 ? network.length * 8 : Integer.parseInt(cidr.substring(slash + 1));
+            if (prefix < 0 || prefix > network.length * 8) {
+                throw new IllegalArgumentException("Invalid trusted proxy prefix: " + cidr);
+            }
+            return new Subnet(network, prefix);
+        }
+
+        boolean contains(byte[] address) {
+            if (address.length != network.length) return false;
+            int fullBytes = prefix / 8;
+            for (int i = 0; i < fullBytes; i++) {
+                if (address[i] != network[i]) return false;
+            }
+            int remainingBits = prefix % 8;
+            if (remainingBits == 0) return true;
+            int mask = 0xFF << (8 - remainingBits);
+            return (address[fullBytes] & mask) == (network[fullBytes] & mask);
+        }
+    }
+}
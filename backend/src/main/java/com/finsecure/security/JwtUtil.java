@@ -1,14 +1,15 @@
 package com.finsecure.security;
 
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -24,18 +25,25 @@ public class JwtUtil {
     @Value("${app.jwt.expiration}")
     private Long jwtExpiration;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(
-            java.util.Base64.getEncoder().encodeToString(jwtSecret.getBytes())
-        );
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Key and parser are immutable and thread-safe; build them once instead of per call
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signingKey).build();
     }
 
     public String generateToken(UserDetails userDetails) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("role", userDetails.getAuthorities().stream()
+        return generateToken(userDetails.getUsername(), userDetails.getAuthorities().stream()
             .findFirst().map(a -> a.getAuthority()).orElse(""));
-        return buildToken(claims, userDetails.getUsername(), jwtExpiration);
+    }
+
+    public String generateToken(String subject, String role) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("role", role);
+        return buildToken(claims, subject, jwtExpiration);
     }
 
     public String generateToken(UserDetails userDetails, Map<String, Object> extraClaims) {
@@ -48,7 +56,7 @@ public class JwtUtil {
             .subject(subject)
             .issuedAt(new Date(System.currentTimeMillis()))
             .expiration(new Date(System.currentTimeMillis() + expiration))
-            .signWith(getSigningKey())
+            .signWith(signingKey)
             .compact();
     }
 
@@ -70,12 +78,13 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
+    // Verifies signature and expiry in one pass; throws JwtException on any failure
+    public Claims parseToken(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-            .verifyWith(getSigningKey())
-            .build()
-            .parseSignedClaims(token)
-            .getPayload();
+        return parseToken(token);
     }
 
     private boolean isTokenExpired(String token) {
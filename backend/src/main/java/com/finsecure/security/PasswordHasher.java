@@ -0,0 +1,96 @@
+package com.finsecure.security;
+
+import com.finsecure.config.AsyncConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Runs BCrypt on the CPU-sized hash executor so a login burst queues there instead of pinning
+// servlet threads. Work that waited longer than the queue timeout is rejected when it reaches
+// a thread: by then the client has likely given up and hashing for it only delays the rest.
+// Futures fail with RejectedExecutionException when the pool is saturated or the wait expired.
+@Component
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolTaskExecutor executor;
+    private final long queueTimeoutNanos;
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Timer queueTimer;
+    private final MeterRegistry meterRegistry;
+
+    // Compared against when the user does not exist, so unknown identifiers cost the same as wrong passwords
+    private final String dummyHash;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          @Qualifier(AsyncConfig.HASH_EXECUTOR) ThreadPoolTaskExecutor executor,
+                          @Value("${app.security.hash.queue-timeout-ms:2000}") long queueTimeoutMs,
+                          MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        this.executor = executor;
+        this.queueTimeoutNanos = queueTimeoutMs * 1_000_000L;
+        this.meterRegistry = meterRegistry;
+        this.encodeTimer = hashTimer("encode", meterRegistry);
+        this.matchTimer = hashTimer("match", meterRegistry);
+        this.queueTimer = Timer.builder("finsecure.password.hash.queued")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.dummyHash = passwordEncoder.encode("finsecure-dummy-password");
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    // A null stored hash (unknown user) is checked against a dummy hash and never matches
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        String target = encodedPassword != null ? encodedPassword : dummyHash;
+        return submit(() -> matchTimer.record(() -> passwordEncoder.matches(rawPassword, target)) && encodedPassword != null);
+    }
+
+    // True when the hash was made with a lower cost than the one now configured
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> work) {
+        long enqueued = System.nanoTime();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                long waited = System.nanoTime() - enqueued;
+                queueTimer.record(waited, TimeUnit.NANOSECONDS);
+                if (waited > queueTimeoutNanos) {
+                    meterRegistry.counter("finsecure.password.hash.expired").increment();
+                    result.completeExceptionally(new RejectedExecutionException("Password hashing queue timeout"));
+                    return;
+                }
+                try {
+                    result.complete(work.get());
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private static Timer hashTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder("finsecure.password.hash")
+            .tag("operation", operation)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,81 @@
+package com.finsecure.security;
+
+import com.finsecure.config.RateLimitProperties;
+import com.finsecure.config.RateLimitProperties.Limit;
+import com.finsecure.config.RateLimitProperties.Policy;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Token buckets per (policy, identity) and (policy, client IP), checked before any expensive
+// work such as a BCrypt verification. Each bucket is a single AtomicLong holding its
+// theoretical arrival time (GCRA): refill is computed lazily from the clock on each request
+// and an admit is one CAS, so there are no locks or refill threads.
+@Component
+public class RateLimiter {
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Cache<BucketKey, AtomicLong> buckets;
+
+    private record BucketKey(String policy, String scope, String value) {}
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        // A bucket untouched for its longest period is full again, so it can be forgotten
+        Duration idle = properties.getPolicies().values().stream()
+            .flatMap(policy -> Stream.of(policy.getIdentity(), policy.getIp()))
+            .filter(Objects::nonNull)
+            .map(Limit::getPeriod)
+            .max(Duration::compareTo)
+            .orElse(Duration.ofMinutes(1));
+        this.buckets = Caffeine.newBuilder()
+            .maximumSize(properties.getMaxKeys())
+            .expireAfterAccess(idle)
+            .build();
+        Gauge.builder("finsecure.ratelimit.keys", buckets, Cache::estimatedSize).register(meterRegistry);
+    }
+
+    // Returns 0 when admitted, otherwise the seconds to wait before retrying. The IP bucket is
+    // checked first so a spray of identities from one address cannot reach the identity buckets.
+    public long tryAcquire(String policyName, String identity, String clientIp) {
+        Policy policy = properties.isEnabled() ? properties.getPolicies().get(policyName) : null;
+        if (policy == null) return 0;
+
+        long wait = tryAcquire(policyName, "ip", clientIp, policy.getIp());
+        if (wait == 0 && identity != null) {
+            wait = tryAcquire(policyName, "identity", identity.trim().toLowerCase(Locale.ROOT), policy.getIdentity());
+        }
+        return wait == 0 ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999L));
+    }
+
+    private long tryAcquire(String policyName, String scope, String value, Limit limit) {
+        if (limit == null || limit.getBurst() <= 0 || value == null) return 0;
+
+        long interval = limit.getPeriod().toNanos() / limit.getBurst();
+        long tolerance = interval * (limit.getBurst() - 1);
+        AtomicLong arrival = buckets.get(new BucketKey(policyName, scope, value), key -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long now = System.nanoTime();
+            long current = arrival.get();
+            long next = Math.max(current, now);
+            if (next - now > tolerance) {
+                meterRegistry.counter("finsecure.ratelimit.rejected", "policy", policyName, "scope", scope).increment();
+                return next - tolerance - now;
+            }
+            if (arrival.compareAndSet(current, next + interval)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.finsecure.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finsecure.entity.AuditLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Write-behind sink for audit events. Producers publish into a lock-free ring buffer and
+// return immediately; a single flusher thread drains it and writes multi-row JDBC batches
+// when a batch fills or the flush interval elapses.
+//
+// Durability modes:
+//   MEMORY - events that do not fit in the buffer, or cannot be written, are dropped and counted
+//   SPILL  - such events are appended to a local fsynced file and replayed once the database
+//            keeps up again, so a slow or unavailable database never loses audit records
+@Component
+@Slf4j
+public class AuditAppender {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO audit_logs (user_id, username, action, resource, resource_id, details, ip_address, " +
+        "user_agent, result, error_message, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    public enum Durability { MEMORY, SPILL }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditRingBuffer<AuditLog> buffer;
+    private final AuditSpillFile spillFile;
+    private final Durability durability;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long retryBackoffNanos;
+
+    private final Timer flushTimer;
+    private final Counter writtenCounter;
+    private final Counter spilledCounter;
+    private final Counter replayedCounter;
+    private final MeterRegistry meterRegistry;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    // Flusher-thread state
+    private long lastFlush = System.nanoTime();
+    private boolean replayPending;
+
+    public AuditAppender(JdbcTemplate jdbcTemplate,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.audit.buffer-capacity:65536}") int bufferCapacity,
+                         @Value("${app.audit.batch-size:500}") int batchSize,
+                         @Value("${app.audit.flush-interval-ms:200}") long flushIntervalMs,
+                         @Value("${app.audit.retry-backoff-ms:1000}") long retryBackoffMs,
+                         @Value("${app.audit.durability:SPILL}") Durability durability,
+                         @Value("${app.audit.spill-dir:data/audit-spill}") String spillDir) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.buffer = new AuditRingBuffer<>(bufferCapacity);
+        this.spillFile = new AuditSpillFile(Path.of(spillDir), objectMapper);
+        this.durability = durability;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.retryBackoffNanos = TimeUnit.MILLISECONDS.toNanos(retryBackoffMs);
+        this.meterRegistry = meterRegistry;
+
+        this.flushTimer = Timer.builder("finsecure.audit.flush")
+            .description("Time to write one audit batch")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        this.writtenCounter = meterRegistry.counter("finsecure.audit.written");
+        this.spilledCounter = meterRegistry.counter("finsecure.audit.spilled");
+        this.replayedCounter = meterRegistry.counter("finsecure.audit.replayed");
+        Gauge.builder("finsecure.audit.buffer.size", buffer, AuditRingBuffer::size)
+            .description("Audit events waiting to be flushed")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        flusher = new Thread(this::runFlusher, "audit-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Audit appender started: capacity={}, batch={}, durability={}", buffer.capacity(), batchSize, durability);
+    }
+
+    public void append(AuditLog event) {
+        if (buffer.offer(event)) {
+            if (buffer.size() >= batchSize) {
+                LockSupport.unpark(flusher);
+            }
+            return;
+        }
+        // Buffer full: the database is not keeping up
+        if (durability == Durability.SPILL) {
+            spill(List.of(event));
+        } else {
+            drop(1, "buffer_full");
+        }
+    }
+
+    private void runFlusher() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        replayPending = durability == Durability.SPILL && spillFile.hasPending();
+
+        while (running) {
+            try {
+                flushCycle(batch);
+            } catch (RuntimeException e) {
+                log.error("Unexpected audit flusher error: {}", e.getMessage(), e);
+                LockSupport.parkNanos(retryBackoffNanos);
+            }
+        }
+
+        // Shutdown: write out whatever is still buffered
+        buffer.drainTo(batch, Integer.MAX_VALUE);
+        if (!batch.isEmpty() && !flush(batch) && durability == Durability.MEMORY) {
+            drop(batch.size(), "shutdown");
+        }
+    }
+
+    // One pass of the flusher loop; only ever called from the flusher thread
+    private void flushCycle(List<AuditLog> batch) {
+        buffer.drainTo(batch, batchSize - batch.size());
+        long now = System.nanoTime();
+
+        if (batch.size() >= batchSize || (!batch.isEmpty() && now - lastFlush >= flushIntervalNanos)) {
+            if (flush(batch)) {
+                batch.clear();
+                lastFlush = now;
+            } else {
+                LockSupport.parkNanos(retryBackoffNanos);
+            }
+            return;
+        }
+
+        if (batch.isEmpty() && replayPending) {
+            replayPending = !replaySpill();
+            if (replayPending) LockSupport.parkNanos(retryBackoffNanos);
+            return;
+        }
+
+        LockSupport.parkNanos(flushIntervalNanos);
+        if (durability == Durability.SPILL && !replayPending && buffer.size() == 0) {
+            replayPending = spillFile.hasPending();
+        }
+    }
+
+    // Returns true when the batch no longer needs to be held by the flusher
+    private boolean flush(List<AuditLog> batch) {
+        try {
+            flushTimer.record(() -> insert(batch));
+            writtenCounter.increment(batch.size());
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // One bad row fails the whole multi-row insert; isolate it and keep the rest
+            insertIndividually(batch);
+            return true;
+        } catch (DataAccessException e) {
+            if (durability == Durability.SPILL) {
+                log.warn("Audit flush of {} events failed, spilling to disk: {}", batch.size(), e.getMessage());
+                return spill(batch);
+            }
+            log.warn("Audit flush of {} events failed, will retry: {}", batch.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void insertIndividually(List<AuditLog> batch) {
+        for (AuditLog event : batch) {
+            try {
+                insert(List.of(event));
+                writtenCounter.increment();
+            } catch (DataAccessException e) {
+                log.error("Dropping audit event {} for user {}: {}", event.getAction(), event.getUserId(), e.getMessage());
+                drop(1, "rejected");
+            }
+        }
+    }
+
+    private boolean replaySpill() {
+        try {
+            for (Path snapshot : spillFile.snapshotsForReplay()) {
+                long replayed = spillFile.replay(snapshot, batchSize, batch -> {
+                    try {
+                        insert(batch);
+                    } catch (DataIntegrityViolationException e) {
+                        insertIndividually(batch);
+                    }
+                });
+                replayedCounter.increment(replayed);
+                writtenCounter.increment(replayed);
+                log.info("Replayed {} spilled audit events from {}", replayed, snapshot.getFileName());
+            }
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("Audit spill replay paused, database unavailable: {}", e.getMessage());
+            return false;
+        } catch (IOException e) {
+            log.error("Audit spill replay failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean spill(List<AuditLog> events) {
+        try {
+            spillFile.append(events);
+            spilledCounter.increment(events.size());
+            return true;
+        } catch (IOException e) {
+            log.error("Cannot spill {} audit events: {}", events.size(), e.getMessage());
+            drop(events.size(), "spill_failed");
+            return true;
+        }
+    }
+
+    private void drop(int count, String reason) {
+        meterRegistry.counter("finsecure.audit.dropped", "reason", reason).increment(count);
+    }
+
+    private void insert(List<AuditLog> batch) {
+        // rewriteBatchedStatements turns this into a single multi-row INSERT per batch
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, event) -> {
+            ps.setLong(1, event.getUserId() != null ? event.getUserId() : 0L);
+            ps.setString(2, truncate(event.getUsername() != null ? event.getUsername() : "UNKNOWN", 100));
+            ps.setString(3, truncate(event.getAction(), 100));
+            ps.setString(4, truncate(event.getResource() != null ? event.getResource() : "UNKNOWN", 100));
+            ps.setString(5, truncate(event.getResourceId(), 50));
+            ps.setString(6, truncate(event.getDetails(), 2000));
+            ps.setString(7, truncate(event.getIpAddress(), 45));
+            ps.setString(8, truncate(event.getUserAgent(), 200));
+            ps.setString(9, event.getResult() != null ? event.getResult().name() : AuditLog.AuditResult.SUCCESS.name());
+            ps.setString(10, truncate(event.getErrorMessage(), 500));
+            LocalDateTime createdAt = event.getCreatedAt() != null ? event.getCreatedAt() : LocalDateTime.now();
+            ps.setTimestamp(11, Timestamp.valueOf(createdAt));
+        });
+    }
+
+    private static String truncate(String value, int max) {
+        return value == null || value.length() <= max ? value : value.substring(0, max);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        spillFile.close();
+        log.info("Audit appender stopped");
+    }
+}
@@ -0,0 +1,161 @@
+package com.finsecure.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finsecure.config.AuditRetentionProperties;
+import com.finsecure.entity.AuditLog;
+import com.finsecure.repository.AuditLogJdbcRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+// Purges expired audit rows in small chunks: each chunk is read, appended to a gzip JSON-lines
+// archive that is synced to disk, and only then deleted by primary key. There is no enclosing
+// transaction, so no lock outlives a single chunk statement.
+@Component
+@Slf4j
+public class AuditRetentionJob {
+
+    private static final DateTimeFormatter FILE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final AuditLogJdbcRepository auditLogJdbcRepository;
+    private final AuditRetentionProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Timer runTimer;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong currentRunDeleted = new AtomicLong();
+    private final AtomicLong lastRunDeleted = new AtomicLong();
+
+    public AuditRetentionJob(AuditLogJdbcRepository auditLogJdbcRepository,
+                             AuditRetentionProperties properties,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry) {
+        this.auditLogJdbcRepository = auditLogJdbcRepository;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.runTimer = meterRegistry.timer("finsecure.audit.retention.run");
+        meterRegistry.gauge("finsecure.audit.retention.progress", currentRunDeleted);
+        meterRegistry.gauge("finsecure.audit.retention.last.run.deleted", lastRunDeleted);
+    }
+
+    public long run() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Audit retention already running, skipping");
+            return 0;
+        }
+        currentRunDeleted.set(0);
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MINUTES.toNanos(properties.getMaxRunMinutes());
+        try (Archive archive = properties.isArchiveEnabled() ? openArchive() : null) {
+            LocalDateTime now = LocalDateTime.now();
+            for (Map.Entry<String, Integer> policy : properties.getActions().entrySet()) {
+                purge(policy.getKey(), now.minusDays(policy.getValue()), archive, deadline);
+            }
+            purge(null, now.minusDays(properties.getDefaultDays()), archive, deadline);
+        } catch (IOException e) {
+            log.error("Audit retention aborted, archive unavailable: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            long deleted = currentRunDeleted.get();
+            lastRunDeleted.set(deleted);
+            runTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            running.set(false);
+            log.info("Audit retention finished: {} rows removed in {}s", deleted,
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started));
+        }
+        return lastRunDeleted.get();
+    }
+
+    // action == null applies the default retention to every action without its own policy
+    private void purge(String action, LocalDateTime cutoff, Archive archive, long deadline)
+            throws IOException, InterruptedException {
+        String tag = action != null ? action : "DEFAULT";
+        AuditLog after = null;
+        while (currentRunDeleted.get() < properties.getMaxRowsPerRun() && System.nanoTime() < deadline) {
+            List<AuditLog> chunk = action != null
+                ? auditLogJdbcRepository.findExpiredByAction(action, cutoff, properties.getChunkSize())
+                : auditLogJdbcRepository.findExpiredExcluding(properties.getActions().keySet(), cutoff, after,
+                    properties.getChunkSize());
+            if (chunk.isEmpty()) return;
+
+            if (archive != null) {
+                archive.write(chunk);
+                meterRegistry.counter("finsecure.audit.retention.archived", "action", tag).increment(chunk.size());
+            }
+            int deleted = auditLogJdbcRepository.deleteByIds(chunk.stream().map(AuditLog::getId).toList());
+            meterRegistry.counter("finsecure.audit.retention.deleted", "action", tag).increment(deleted);
+            long total = currentRunDeleted.addAndGet(deleted);
+            after = chunk.get(chunk.size() - 1);
+
+            if (total % (properties.getChunkSize() * 50L) < deleted) {
+                log.info("Audit retention progress: {} rows removed, now at {} ({})", total, after.getCreatedAt(), tag);
+            }
+            if (chunk.size() < properties.getChunkSize()) return;
+            Thread.sleep(properties.getPauseMs());
+        }
+    }
+
+    private Archive openArchive() throws IOException {
+        Path dir = Path.of(properties.getArchiveDir());
+        Files.createDirectories(dir);
+        Path file = dir.resolve("audit-" + LocalDateTime.now().format(FILE_STAMP) + ".jsonl.gz");
+        return new Archive(file, objectMapper);
+    }
+
+    // gzip stream in sync-flush mode: after each chunk the compressed bytes are flushed and the
+    // file descriptor synced, so archived rows are on disk before they are deleted
+    private static class Archive implements Closeable {
+
+        private final Path file;
+        private final FileOutputStream fileOut;
+        private final GZIPOutputStream gzip;
+        private final Writer writer;
+        private final ObjectMapper objectMapper;
+        private long rows;
+
+        Archive(Path file, ObjectMapper objectMapper) throws IOException {
+            this.file = file;
+            this.objectMapper = objectMapper;
+            this.fileOut = new FileOutputStream(file.toFile());
+            this.gzip = new GZIPOutputStream(fileOut, 64 * 1024, true);
+            this.writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), 64 * 1024);
+        }
+
+        void write(List<AuditLog> chunk) throws IOException {
+            for (AuditLog row : chunk) {
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+            writer.flush();
+            fileOut.getFD().sync();
+            rows += chunk.size();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+            if (rows == 0) {
+                Files.deleteIfExists(file);
+            } else {
+                log.info("Archived {} audit rows to {}", rows, file);
+            }
+        }
+    }
+}
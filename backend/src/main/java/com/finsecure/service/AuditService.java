@@ -2,14 +2,11 @@ package com.finsecure.service;
 
 import com.finsecure.entity.AuditLog;
 import com.finsecure.entity.AuditLog.AuditResult;
-import com.finsecure.repository.AuditLogRepository;
-import jakarta.servlet.http.HttpServletRequest;
+import com.finsecure.security.ClientIpResolver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
@@ -20,15 +17,13 @@ import java.time.LocalDateTime;
 @Slf4j
 public class AuditService {
 
-    private final AuditLogRepository auditLogRepository;
+    private final AuditAppender auditAppender;
+    private final AuditRetentionJob auditRetentionJob;
+    private final ClientIpResolver clientIpResolver;
 
-    @Async
-    @Transactional
+    // IP and User-Agent are read here on the request thread; AuditAppender batches the insert
     public void logAction(Long userId, String username, String action, String resource, String resourceId, String details, AuditResult result) {
         try {
-            String ipAddress = extractIpAddress();
-            String userAgent = extractUserAgent();
-
             AuditLog auditLog = AuditLog.builder()
                 .userId(userId)
                 .username(username)
@@ -36,25 +31,22 @@ public class AuditService {
                 .resource(resource)
                 .resourceId(resourceId)
                 .details(details)
-                .ipAddress(ipAddress)
-                .userAgent(userAgent)
+                .ipAddress(extractIpAddress())
+                .userAgent(extractUserAgent())
                 .result(result)
+                .createdAt(LocalDateTime.now())
                 .build();
 
-            auditLogRepository.save(auditLog);
+            auditAppender.append(auditLog);
         } catch (Exception e) {
-            log.error("Failed to save audit log: {}", e.getMessage());
+            log.error("Failed to queue audit log: {}", e.getMessage());
         }
     }
 
-    @Async
-    @Transactional
     public void logSuccess(Long userId, String username, String action, String resource, String resourceId, String details) {
         logAction(userId, username, action, resource, resourceId, details, AuditResult.SUCCESS);
     }
 
-    @Async
-    @Transactional
     public void logFailure(Long userId, String username, String action, String resource, String resourceId, String errorMessage) {
         AuditLog auditLog = AuditLog.builder()
             .userId(userId != null ? userId : 0L)
@@ -66,33 +58,25 @@ public class AuditService {
             .ipAddress(extractIpAddress())
             .userAgent(extractUserAgent())
             .result(AuditResult.FAILURE)
+            .createdAt(LocalDateTime.now())
             .build();
 
-        auditLogRepository.save(auditLog);
+        auditAppender.append(auditLog);
     }
 
-    @Scheduled(cron = "0 0 2 * * *")
-    @Transactional
+    // Runs outside any transaction: the job archives and deletes in short independent chunks
+    @Scheduled(cron = "${app.audit.retention.cron:0 0 2 * * *}")
     public void cleanOldLogs() {
-        // Keep logs for 90 days
-        log.info("Audit log cleanup scheduled task runs at 2 AM daily");
+        auditRetentionJob.run();
     }
 
     private String extractIpAddress() {
         try {
-            ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-            if (attributes != null) {
-                HttpServletRequest request = attributes.getRequest();
-                String xForwardedFor = request.getHeader("X-Forwarded-For");
-                if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-                    return xForwardedFor.split(",")[0].trim();
-                }
-                return request.getRemoteAddr();
-            }
+            return clientIpResolver.current();
         } catch (Exception e) {
             log.debug("Could not extract IP address: {}", e.getMessage());
         }
-        return "UNKNOWN";
+        return ClientIpResolver.UNKNOWN;
     }
 
     private String extractUserAgent() {
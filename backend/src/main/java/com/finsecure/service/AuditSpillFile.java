@@ -0,0 +1,179 @@
+package com.finsecure.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finsecure.entity.AuditLog;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Append-only JSON-lines file holding audit events that could not reach the database in time.
+// Every append is fsynced before returning. Replay works on a renamed snapshot so producers
+// can keep appending to a fresh active file while older events drain.
+@Slf4j
+class AuditSpillFile {
+
+    private static final String ACTIVE = "audit-spill.jsonl";
+    private static final String REPLAY_SUFFIX = ".replay";
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final Object appendLock = new Object();
+    private FileChannel channel;
+
+    AuditSpillFile(Path directory, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+    }
+
+    void append(List<AuditLog> events) throws IOException {
+        StringBuilder lines = new StringBuilder(events.size() * 256);
+        for (AuditLog event : events) {
+            lines.append(objectMapper.writeValueAsString(event)).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        synchronized (appendLock) {
+            FileChannel out = activeChannel();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(false);
+        }
+    }
+
+    boolean hasPending() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.anyMatch(p -> isReplayFile(p) || (p.getFileName().toString().equals(ACTIVE) && size(p) > 0));
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            log.warn("Cannot inspect audit spill directory {}: {}", directory, e.getMessage());
+            return false;
+        }
+    }
+
+    // Moves the active file aside (if non-empty) and returns every snapshot awaiting replay, oldest first
+    List<Path> snapshotsForReplay() throws IOException {
+        synchronized (appendLock) {
+            Path active = directory.resolve(ACTIVE);
+            if (Files.exists(active) && Files.size(active) > 0) {
+                closeChannel();
+                Files.move(active, directory.resolve("audit-spill-" + System.currentTimeMillis() + ".jsonl" + REPLAY_SUFFIX),
+                    StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(AuditSpillFile::isReplayFile).sorted().toList();
+        }
+    }
+
+    // Feeds the snapshot to the sink in batches. If the sink fails, the unsent tail is written
+    // back over the snapshot so nothing is replayed twice, and the failure is rethrown.
+    long replay(Path snapshot, int batchSize, BatchSink sink) throws IOException {
+        long replayed = 0;
+        List<String> pendingLines = new ArrayList<>(batchSize);
+        try (BufferedReader reader = Files.newBufferedReader(snapshot, StandardCharsets.UTF_8)) {
+            String line;
+            while (true) {
+                pendingLines.clear();
+                while (pendingLines.size() < batchSize && (line = reader.readLine()) != null) {
+                    if (!line.isBlank()) pendingLines.add(line);
+                }
+                if (pendingLines.isEmpty()) break;
+
+                List<AuditLog> batch = new ArrayList<>(pendingLines.size());
+                for (String json : pendingLines) {
+                    try {
+                        batch.add(objectMapper.readValue(json, AuditLog.class));
+                    } catch (IOException e) {
+                        log.error("Skipping unreadable audit spill line in {}: {}", snapshot.getFileName(), e.getMessage());
+                    }
+                }
+                try {
+                    sink.write(batch);
+                } catch (RuntimeException e) {
+                    rewriteRemainder(snapshot, pendingLines, reader);
+                    throw e;
+                }
+                replayed += batch.size();
+            }
+        }
+        Files.delete(snapshot);
+        return replayed;
+    }
+
+    void close() {
+        synchronized (appendLock) {
+            closeChannel();
+        }
+    }
+
+    private void rewriteRemainder(Path snapshot, List<String> unsent, BufferedReader reader) throws IOException {
+        Path tmp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            StringBuilder chunk = new StringBuilder();
+            for (String line : unsent) chunk.append(line).append('\n');
+            String line;
+            while ((line = reader.readLine()) != null) {
+                chunk.append(line).append('\n');
+                if (chunk.length() > 64 * 1024) {
+                    writeFully(out, chunk);
+                }
+            }
+            writeFully(out, chunk);
+            out.force(false);
+        }
+        Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeFully(FileChannel out, StringBuilder chunk) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(chunk.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) out.write(buffer);
+        chunk.setLength(0);
+    }
+
+    private FileChannel activeChannel() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            Files.createDirectories(directory);
+            channel = FileChannel.open(directory.resolve(ACTIVE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Error closing audit spill file: {}", e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+    private static boolean isReplayFile(Path path) {
+        return path.getFileName().toString().endsWith(REPLAY_SUFFIX);
+    }
+
+    private static long size(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @FunctionalInterface
+    interface BatchSink {
+        void write(List<AuditLog> batch);
+    }
+}
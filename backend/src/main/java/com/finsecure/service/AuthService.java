@@ -6,20 +6,22 @@ import com.finsecure.entity.Otp.OtpPurpose;
 import com.finsecure.entity.User.Role;
 import com.finsecure.repository.*;
 import com.finsecure.security.JwtUtil;
+import com.finsecure.security.PasswordHasher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.security.SecureRandom;
-import java.time.LocalDateTime;
+import java.time.Duration;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -28,20 +30,38 @@ public class AuthService {
 
     private final UserRepository userRepository;
     private final CustomerRepository customerRepository;
-    private final OtpRepository otpRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final OtpStore otpStore;
+    private final PasswordHasher passwordHasher;
     private final JwtUtil jwtUtil;
-    private final AuthenticationManager authenticationManager;
-    private final CustomUserDetailsService userDetailsService;
     private final EmailService emailService;
     private final NotificationService notificationService;
     private final AuditService auditService;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor applicationTaskExecutor;
+
+    private static final SecureRandom OTP_RANDOM = new SecureRandom();
 
     @Value("${app.otp.expiration-minutes:5}")
     private int otpExpirationMinutes;
 
-    @Transactional
-    public ApiResponse<String> register(RegisterRequest request) {
+    // Conflicts are checked before hashing so duplicates cost no BCrypt time; the rows are
+    // written on the application executor once the hash is ready, keeping the hash pool CPU-only
+    public CompletableFuture<ApiResponse<String>> register(RegisterRequest request) {
+        ApiResponse<String> conflict = findRegistrationConflict(request);
+        if (conflict != null) {
+            return CompletableFuture.completedFuture(conflict);
+        }
+        return passwordHasher.encode(request.getPassword())
+            .thenApplyAsync(withRequestContext(hash -> {
+                try {
+                    return transactionTemplate.execute(status -> createCustomer(request, hash));
+                } catch (DataIntegrityViolationException e) {
+                    return ApiResponse.error("Email, username or PAN already registered", "REGISTRATION_CONFLICT");
+                }
+            }), applicationTaskExecutor);
+    }
+
+    private ApiResponse<String> findRegistrationConflict(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
             return ApiResponse.error("Email already registered", "EMAIL_EXISTS");
         }
@@ -51,11 +71,20 @@ public class AuthService {
         if (request.getPanNumber() != null && customerRepository.existsByPanNumber(request.getPanNumber())) {
             return ApiResponse.error("PAN number already registered", "PAN_EXISTS");
         }
+        return null;
+    }
+
+    private ApiResponse<String> createCustomer(RegisterRequest request, String passwordHash) {
+        // Re-checked inside the transaction; unique constraints catch anything that still races
+        ApiResponse<String> conflict = findRegistrationConflict(request);
+        if (conflict != null) {
+            return conflict;
+        }
 
         User user = User.builder()
             .email(request.getEmail())
             .username(request.getUsername())
-            .password(passwordEncoder.encode(request.getPassword()))
+            .password(passwordHash)
             .role(Role.ROLE_CUSTOMER)
             .active(true)
             .emailVerified(false)
@@ -89,40 +118,69 @@ public class AuthService {
         return ApiResponse.success("Registration successful. Please verify your email.");
     }
 
-    @Transactional
-    public ApiResponse<LoginResponse> login(LoginRequest request) {
-        try {
-            Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getIdentifier(), request.getPassword())
-            );
-
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-            String token = jwtUtil.generateToken(userDetails);
-
-            auditService.logSuccess(user.getId(), user.getUsername(), "LOGIN", "AUTH", null, "Successful login");
-
-            LoginResponse response = LoginResponse.builder()
-                .token(token)
-                .tokenType("Bearer")
-                .expiresIn(jwtUtil.getExpirationMs())
-                .role(user.getRole().name())
-                .userId(user.getId())
-                .username(user.getUsername())
-                .email(user.getEmail())
-                .otpRequired(false)
-                .build();
-
-            return ApiResponse.success(response, "Login successful");
-        } catch (Exception e) {
-            auditService.logFailure(null, request.getIdentifier(), "LOGIN", "AUTH", null, e.getMessage());
-            return ApiResponse.error("Invalid credentials", "INVALID_CREDENTIALS");
-        }
+    // The user is read on the request thread; only the BCrypt comparison runs on the hash pool.
+    // Unknown and disabled users are compared against a dummy hash so they take as long as a wrong password.
+    public CompletableFuture<ApiResponse<LoginResponse>> login(LoginRequest request) {
+        User user = userRepository.findByEmailOrUsername(request.getIdentifier())
+            .filter(User::getActive)
+            .orElse(null);
+        String storedHash = user != null ? user.getPassword() : null;
+
+        return passwordHasher.matches(request.getPassword(), storedHash)
+            .thenApply(withRequestContext(matches -> {
+                if (!matches) {
+                    auditService.logFailure(null, request.getIdentifier(), "LOGIN", "AUTH", null,
+                        user == null ? "Unknown or disabled user" : "Bad credentials");
+                    return ApiResponse.<LoginResponse>error("Invalid credentials", "INVALID_CREDENTIALS");
+                }
+
+                if (passwordHasher.needsRehash(storedHash)) {
+                    rehashInBackground(user.getId(), request.getPassword(), storedHash);
+                }
+
+                String token = jwtUtil.generateToken(user.getEmail(), user.getRole().name());
+
+                auditService.logSuccess(user.getId(), user.getUsername(), "LOGIN", "AUTH", null, "Successful login");
+
+                LoginResponse response = LoginResponse.builder()
+                    .token(token)
+                    .tokenType("Bearer")
+                    .expiresIn(jwtUtil.getExpirationMs())
+                    .role(user.getRole().name())
+                    .userId(user.getId())
+                    .username(user.getUsername())
+                    .email(user.getEmail())
+                    .otpRequired(false)
+                    .build();
+
+                return ApiResponse.success(response, "Login successful");
+            }));
+    }
+
+    // Best effort: a saturated pool or failed update just means the upgrade happens on a later login
+    private void rehashInBackground(Long userId, String rawPassword, String oldHash) {
+        passwordHasher.encode(rawPassword)
+            .thenAcceptAsync(newHash -> userRepository.updatePasswordHash(userId, oldHash, newHash), applicationTaskExecutor)
+            .exceptionally(e -> {
+                log.debug("Password rehash for user {} skipped: {}", userId, e.getMessage());
+                return null;
+            });
+    }
+
+    // Continuations run on pool threads; carry the request so audit entries keep the client IP and agent
+    private static <T, R> Function<T, R> withRequestContext(Function<T, R> function) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return value -> {
+            RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+            RequestContextHolder.setRequestAttributes(attributes);
+            try {
+                return function.apply(value);
+            } finally {
+                RequestContextHolder.setRequestAttributes(previous);
+            }
+        };
     }
 
-    @Transactional
     public ApiResponse<String> sendOtp(OtpRequest request) {
         if (!userRepository.existsByEmail(request.getEmail())) {
             return ApiResponse.error("Email not registered", "EMAIL_NOT_FOUND");
@@ -132,24 +190,17 @@ public class AuthService {
         return ApiResponse.success("OTP sent to " + request.getEmail());
     }
 
-    @Transactional
     public ApiResponse<String> verifyOtp(OtpVerificationRequest request) {
-        Otp otp = otpRepository.findValidOtp(request.getEmail(), request.getPurpose(), LocalDateTime.now())
-            .orElse(null);
-
-        if (otp == null) {
-            return ApiResponse.error("Invalid or expired OTP", "INVALID_OTP");
+        switch (otpStore.verify(request.getEmail(), request.getPurpose(), request.getOtpCode())) {
+            case INVALID -> {
+                return ApiResponse.error("Invalid or expired OTP", "INVALID_OTP");
+            }
+            case MISMATCH -> {
+                return ApiResponse.error("Incorrect OTP", "WRONG_OTP");
+            }
+            default -> { }
         }
 
-        if (!otp.getOtpCode().equals(request.getOtpCode())) {
-            otp.setAttemptCount(otp.getAttemptCount() + 1);
-            otpRepository.save(otp);
-            return ApiResponse.error("Incorrect OTP", "WRONG_OTP");
-        }
-
-        otp.setUsed(true);
-        otpRepository.save(otp);
-
         if (request.getPurpose() == OtpPurpose.EMAIL_VERIFICATION) {
             userRepository.findByEmail(request.getEmail()).ifPresent(user -> {
                 user.setEmailVerified(true);
@@ -161,27 +212,13 @@ public class AuthService {
     }
 
     private void generateAndSendOtp(String email, OtpPurpose purpose) {
-        // Invalidate previous OTPs
-        otpRepository.invalidatePreviousOtps(email, purpose);
-
+        // Issuing replaces any previous OTP for the same purpose
         String otpCode = generateOtpCode();
-        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(otpExpirationMinutes);
-
-        Otp otp = Otp.builder()
-            .email(email)
-            .otpCode(otpCode)
-            .purpose(purpose)
-            .expiresAt(expiresAt)
-            .used(false)
-            .attemptCount(0)
-            .build();
-
-        otpRepository.save(otp);
+        otpStore.issue(email, purpose, otpCode, Duration.ofMinutes(otpExpirationMinutes));
         emailService.sendOtpEmail(email, otpCode, purpose.name().replace("_", " "));
     }
 
     private String generateOtpCode() {
-        SecureRandom random = new SecureRandom();
-        return String.format("%06d", random.nextInt(1000000));
+        return String.format("%06d", OTP_RANDOM.nextInt(1000000));
     }
 }
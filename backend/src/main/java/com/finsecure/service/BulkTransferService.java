@@ -0,0 +1,226 @@
+package com.finsecure.service;
+
+import com.finsecure.dto.BulkTransferLine;
+import com.finsecure.dto.BulkTransferLineResult;
+import com.finsecure.dto.BulkTransferRequest;
+import com.finsecure.dto.BulkTransferResponse;
+import com.finsecure.entity.Account;
+import com.finsecure.entity.Account.AccountStatus;
+import com.finsecure.entity.Transaction.TransactionType;
+import com.finsecure.repository.AccountRepository;
+import com.finsecure.repository.LedgerJdbcRepository;
+import com.finsecure.repository.LedgerJdbcRepository.AccountRef;
+import com.finsecure.repository.LedgerJdbcRepository.LedgerEntry;
+import com.finsecure.repository.LedgerJdbcRepository.LockedAccount;
+import com.finsecure.service.NotificationService.TransactionAlert;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkTransferService {
+
+    private static final String STATUS_SUCCESS = "SUCCESS";
+    private static final String STATUS_EXTERNAL = "EXTERNAL";
+    private static final String STATUS_REJECTED = "REJECTED";
+
+    private static final BigDecimal MIN_AMOUNT = BigDecimal.ONE;
+    private static final BigDecimal MAX_AMOUNT = BigDecimal.valueOf(1000000);
+
+    private final AccountRepository accountRepository;
+    private final LedgerJdbcRepository ledgerRepository;
+    private final TransactionService transactionService;
+    private final NotificationService notificationService;
+    private final EmailService emailService;
+    private final DashboardCache dashboardCache;
+    private final VelocityLimiter velocityLimiter;
+
+    // The source and every internal target are locked, so the whole file is retried like a
+    // single transfer when it loses a deadlock or lock wait against concurrent transfers
+    public BulkTransferResponse processBulkTransfer(BulkTransferRequest request, String userEmail) {
+        return transactionService.executeWithRetry(request.getFromAccountNumber(),
+            () -> executeBulkTransfer(request, userEmail));
+    }
+
+    private BulkTransferResponse executeBulkTransfer(BulkTransferRequest request, String userEmail) {
+        Account source = accountRepository.findByAccountNumber(request.getFromAccountNumber())
+            .orElseThrow(() -> new IllegalArgumentException("Source account not found"));
+
+        if (!source.getCustomer().getUser().getEmail().equals(userEmail)) {
+            throw new SecurityException("Unauthorized: Account does not belong to this user");
+        }
+
+        List<BulkTransferLine> lines = request.getLines();
+        Set<String> targetNumbers = lines.stream()
+            .filter(Objects::nonNull)
+            .map(BulkTransferLine::getToAccountNumber)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        Map<String, AccountRef> targets = ledgerRepository.findByAccountNumbers(targetNumbers);
+
+        // Lock the source and every internal target once, in id order
+        Set<Long> lockIds = new HashSet<>();
+        lockIds.add(source.getId());
+        targets.values().forEach(ref -> lockIds.add(ref.id()));
+        Map<Long, LockedAccount> locked = ledgerRepository.lockByIds(lockIds);
+
+        LockedAccount lockedSource = locked.get(source.getId());
+        if (lockedSource.status() != AccountStatus.ACTIVE) {
+            throw new IllegalStateException("Source account is not active");
+        }
+
+        // Validate the whole file before any balance changes
+        BulkTransferLineResult[] results = new BulkTransferLineResult[lines.size()];
+        BigDecimal total = BigDecimal.ZERO;
+        int accepted = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            BulkTransferLine line = lines.get(i);
+            if (line == null) {
+                // A null element in the JSON array; it fails on its own like any other bad line
+                results[i] = BulkTransferLineResult.builder()
+                    .lineNumber(i + 1)
+                    .status(STATUS_REJECTED)
+                    .message("Line is required")
+                    .build();
+                continue;
+            }
+            AccountRef target = targets.get(line.getToAccountNumber());
+            String rejection = null;
+            if (line.getToAccountNumber() == null || line.getToAccountNumber().isBlank()) {
+                rejection = "Destination account number is required";
+            } else if (line.getAmount() == null) {
+                rejection = "Amount is required";
+            } else if (line.getAmount().compareTo(MIN_AMOUNT) < 0) {
+                rejection = "Minimum transaction amount is 1";
+            } else if (line.getAmount().compareTo(MAX_AMOUNT) > 0) {
+                rejection = "Maximum transaction amount is 10,00,000";
+            } else if (line.getDescription() != null && line.getDescription().length() > 200) {
+                rejection = "Description cannot exceed 200 characters";
+            } else if (target != null && target.id().equals(source.getId())) {
+                rejection = "Destination cannot be the source account";
+            } else if (target != null && locked.get(target.id()).status() != AccountStatus.ACTIVE) {
+                rejection = "Destination account is not active";
+            }
+
+            results[i] = BulkTransferLineResult.builder()
+                .lineNumber(i + 1)
+                .toAccountNumber(line.getToAccountNumber())
+                .amount(line.getAmount())
+                .status(rejection != null ? STATUS_REJECTED : target != null ? STATUS_SUCCESS : STATUS_EXTERNAL)
+                .message(rejection)
+                .build();
+
+            if (rejection == null) {
+                total = total.add(line.getAmount());
+                accepted++;
+            }
+        }
+
+        if (accepted == 0) {
+            return buildResponse(request, null, lines.size(), 0, BigDecimal.ZERO, lockedSource.balance(), results);
+        }
+
+        if (lockedSource.balance().compareTo(total) < 0) {
+            throw new IllegalStateException("Insufficient balance for bulk transfer of Rs. " + total);
+        }
+
+        velocityLimiter.checkAccount(source.getId(), source.getAccountType(), request.getMode(), total);
+
+        if (total.compareTo(TransactionService.OTP_THRESHOLD) > 0) {
+            transactionService.validateOtp(userEmail, request.getOtpCode());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        List<LedgerEntry> entries = new ArrayList<>(accepted + 1);
+
+        // Single debit for the whole file
+        BigDecimal sourceBalance = lockedSource.balance().subtract(total);
+        balances.put(source.getId(), sourceBalance);
+        String debitReference = transactionService.generateReferenceNumber();
+        String debitDescription = request.getDescription() != null
+            ? request.getDescription()
+            : "Bulk transfer (" + accepted + " payments)";
+        entries.add(new LedgerEntry(debitReference, source.getId(), TransactionType.DEBIT, request.getMode(),
+            total, sourceBalance, debitDescription, null, now));
+
+        List<Integer> creditedLines = new ArrayList<>(accepted);
+        for (int i = 0; i < lines.size(); i++) {
+            BulkTransferLineResult result = results[i];
+            if (STATUS_REJECTED.equals(result.getStatus())) {
+                continue;
+            }
+            if (STATUS_EXTERNAL.equals(result.getStatus())) {
+                result.setReferenceNumber(debitReference);
+                continue;
+            }
+
+            BulkTransferLine line = lines.get(i);
+            AccountRef target = targets.get(line.getToAccountNumber());
+            BigDecimal balanceAfter = balances.getOrDefault(target.id(), locked.get(target.id()).balance())
+                .add(line.getAmount());
+            balances.put(target.id(), balanceAfter);
+
+            String reference = transactionService.generateReferenceNumber();
+            entries.add(new LedgerEntry(reference, target.id(), TransactionType.CREDIT, request.getMode(),
+                line.getAmount(), balanceAfter,
+                line.getDescription() != null ? line.getDescription() : "Transfer from " + request.getFromAccountNumber(),
+                request.getFromAccountNumber(), now));
+            result.setReferenceNumber(reference);
+            creditedLines.add(i);
+        }
+
+        ledgerRepository.updateBalances(balances);
+        ledgerRepository.insertTransactions(entries);
+
+        // One alert per credited account, written as a single outbox batch
+        Map<String, BigDecimal> creditedTotals = new LinkedHashMap<>();
+        for (int i : creditedLines) {
+            BulkTransferLine line = lines.get(i);
+            creditedTotals.merge(line.getToAccountNumber(), line.getAmount(), BigDecimal::add);
+        }
+        Set<Long> creditedUserIds = new HashSet<>();
+        List<TransactionAlert> alerts = new ArrayList<>(creditedTotals.size());
+        creditedTotals.forEach((accountNumber, amount) -> {
+            Long recipientUserId = targets.get(accountNumber).userId();
+            creditedUserIds.add(recipientUserId);
+            alerts.add(new TransactionAlert(recipientUserId, accountNumber, amount.toString(), "credit"));
+        });
+        notificationService.sendTransactionNotifications(alerts);
+
+        Long senderUserId = source.getCustomer().getUser().getId();
+        creditedUserIds.add(senderUserId);
+        creditedUserIds.forEach(dashboardCache::evict);
+        notificationService.sendTransactionNotification(senderUserId,
+            source.getAccountNumber(), total.toString(), "bulk debit");
+        emailService.sendTransactionAlert(userEmail, source.getAccountNumber(),
+            total.toString(), "bulk debit", sourceBalance.toString());
+
+        log.info("Bulk transfer from {}: {} of {} lines processed, total Rs. {}",
+            source.getAccountNumber(), accepted, lines.size(), total);
+
+        return buildResponse(request, debitReference, lines.size(), accepted, total, sourceBalance, results);
+    }
+
+    private BulkTransferResponse buildResponse(BulkTransferRequest request, String debitReference, int totalLines,
+                                               int accepted, BigDecimal total, BigDecimal balanceAfter,
+                                               BulkTransferLineResult[] results) {
+        return BulkTransferResponse.builder()
+            .fromAccountNumber(request.getFromAccountNumber())
+            .debitReferenceNumber(debitReference)
+            .totalLines(totalLines)
+            .successfulLines(accepted)
+            .rejectedLines(totalLines - accepted)
+            .totalDebited(total)
+            .balanceAfter(balanceAfter)
+            .results(Arrays.asList(results))
+            .build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.finsecure.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Eviction for caches written through inside a transaction: the entry is dropped now, so later
+// reads in the same transaction miss, and again when the transaction completes, so a reader
+// that reloaded the pre-commit row in between cannot keep it cached.
+public final class CacheEviction {
+
+    private CacheEviction() {
+    }
+
+    public static void nowAndAfterCompletion(Runnable invalidate) {
+        invalidate.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.finsecure.service;
+
+import com.finsecure.dto.CardAuthorizationRequest;
+import com.finsecure.dto.CardAuthorizationResponse;
+import com.finsecure.entity.Card;
+import com.finsecure.entity.Card.CardStatus;
+import com.finsecure.entity.Card.CardType;
+import com.finsecure.entity.CardAuthorization;
+import com.finsecure.entity.CardAuthorization.AuthorizationStatus;
+import com.finsecure.entity.CardAuthorization.Channel;
+import com.finsecure.repository.CardAuthorizationJdbcRepository.StatusChange;
+import com.finsecure.repository.CardAuthorizationRepository;
+import com.finsecure.service.CardLimitLedger.CardState;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Reserve-then-capture authorization for CREDIT and PREPAID cards. The hot path touches no
+// database once a card is resident: PAN HMAC, flag checks and a CAS on the card's counter.
+// Debit cards draw on the account balance and are not authorized here. Card-not-present
+// (ONLINE) authorizations need a CVV, and a card is blocked after max-failures wrong CVVs in a row.
+// Every call is admitted by the write-behind writer before it touches the ledger; when the
+// writer is too far behind, authorize declines with SYSTEM_BUSY and capture/reverse refuse.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CardAuthorizationService {
+
+    private final CardLimitLedger ledger;
+    private final CardAuthorizationWriter writer;
+    private final CardAuthorizationRepository authorizationRepository;
+    private final CardVault cardVault;
+    private final IdGenerator idGenerator;
+    private final VelocityLimiter velocityLimiter;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.card.cvv.max-failures:3}")
+    private int maxCvvFailures;
+
+    // authorizedAt is the epoch millis the spend was counted at, so a release hits the same bucket
+    private record OpenAuthorization(Long cardId, long amount, Channel channel, long authorizedAt) {}
+
+    private final Map<Long, OpenAuthorization> openAuthorizations = new ConcurrentHashMap<>();
+
+    // Holds survive restarts: reload every approved-but-unsettled authorization
+    @PostConstruct
+    void loadOpenAuthorizations() {
+        authorizationRepository.findOpenByStatus(AuthorizationStatus.APPROVED).forEach(open ->
+            openAuthorizations.put(open.getId(), new OpenAuthorization(open.getCardId(),
+                CardLimitLedger.toMinor(open.getAmount()), open.getChannel(),
+                open.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())));
+        log.info("Loaded {} open card authorizations", openAuthorizations.size());
+    }
+
+    public CardAuthorizationResponse authorize(CardAuthorizationRequest request) {
+        long started = System.nanoTime();
+        long amount = CardLimitLedger.toMinor(request.getAmount());
+
+        CardState card = ledger.findByPanIndex(cardVault.panIndex(request.getCardNumber()));
+        if (card == null) {
+            return record(started, null, request, "CARD_NOT_FOUND", null);
+        }
+        if (!writer.admit()) {
+            return respond(started, card, request, "SYSTEM_BUSY", null);
+        }
+
+        long authorizedAt = System.currentTimeMillis();
+        String declineReason = check(card, request);
+        if (declineReason == null
+                && !velocityLimiter.tryReserveCard(card.cardId, card.cardType, request.getChannel(), amount, authorizedAt)) {
+            declineReason = "VELOCITY_LIMIT";
+        } else if (declineReason == null && !ledger.reserve(card, amount)) {
+            velocityLimiter.releaseCard(card.cardId, request.getChannel(), amount, authorizedAt);
+            declineReason = "INSUFFICIENT_LIMIT";
+        }
+
+        Long authorizationId = idGenerator.nextId();
+        if (declineReason == null) {
+            openAuthorizations.put(authorizationId,
+                new OpenAuthorization(card.cardId, amount, request.getChannel(), authorizedAt));
+        }
+        return record(started, card, request, declineReason, authorizationId);
+    }
+
+    public CardAuthorizationResponse capture(Long authorizationId, BigDecimal captureAmount) {
+        OpenAuthorization open = openAuthorizations.get(authorizationId);
+        if (open == null) {
+            throw new IllegalArgumentException("Authorization not found or already settled");
+        }
+        long captured = captureAmount != null ? CardLimitLedger.toMinor(captureAmount) : open.amount();
+        if (captured > open.amount()) {
+            throw new IllegalArgumentException("Capture amount exceeds authorized amount");
+        }
+        admit();
+        if (!openAuthorizations.remove(authorizationId, open)) {
+            writer.cancelAdmission();
+            throw new IllegalArgumentException("Authorization not found or already settled");
+        }
+
+        CardState card = ledger.findById(open.cardId());
+        if (captured < open.amount()) {
+            ledger.release(card, open.amount() - captured);
+            velocityLimiter.releaseCard(open.cardId(), open.channel(), open.amount() - captured, open.authorizedAt());
+        }
+        writer.recordStatusChange(new StatusChange(authorizationId, AuthorizationStatus.CAPTURED,
+            CardLimitLedger.toAmount(captured), LocalDateTime.now()), open.cardId());
+        meterRegistry.counter("finsecure.card.captures").increment();
+
+        return settled(authorizationId, card, AuthorizationStatus.CAPTURED, captured);
+    }
+
+    public CardAuthorizationResponse reverse(Long authorizationId) {
+        admit();
+        OpenAuthorization open = openAuthorizations.remove(authorizationId);
+        if (open == null) {
+            writer.cancelAdmission();
+            throw new IllegalArgumentException("Authorization not found or already settled");
+        }
+
+        CardState card = ledger.findById(open.cardId());
+        ledger.release(card, open.amount());
+        velocityLimiter.releaseCard(open.cardId(), open.channel(), open.amount(), open.authorizedAt());
+        writer.recordStatusChange(new StatusChange(authorizationId, AuthorizationStatus.REVERSED,
+            null, LocalDateTime.now()), open.cardId());
+        meterRegistry.counter("finsecure.card.reversals").increment();
+
+        return settled(authorizationId, card, AuthorizationStatus.REVERSED, open.amount());
+    }
+
+    private void admit() {
+        if (!writer.admit()) {
+            throw new IllegalStateException("Card system is busy, please retry");
+        }
+    }
+
+    private String check(CardState card, CardAuthorizationRequest request) {
+        if (card.cardType == CardType.DEBIT) return "UNSUPPORTED_CARD_TYPE";
+        if (card.status != CardStatus.ACTIVE) return "CARD_NOT_ACTIVE";
+        if (card.expiryDate.isBefore(LocalDate.now())) return "CARD_EXPIRED";
+        String cvvDecline = checkCvv(card, request);
+        if (cvvDecline != null) return cvvDecline;
+        switch (request.getChannel()) {
+            case ONLINE -> {
+                if (!card.onlineEnabled) return "ONLINE_DISABLED";
+            }
+            case CONTACTLESS -> {
+                if (!card.contactlessEnabled) return "CONTACTLESS_DISABLED";
+            }
+            default -> { }
+        }
+        if (request.isInternational() && !card.internationalEnabled) return "INTERNATIONAL_DISABLED";
+        return null;
+    }
+
+    private String checkCvv(CardState card, CardAuthorizationRequest request) {
+        if (request.getCvv() == null || request.getCvv().isBlank()) {
+            return request.getChannel() == Channel.ONLINE ? "CVV_REQUIRED" : null;
+        }
+        if (cardVault.verifyCvv(card.cvvHash, request.getCvv())) {
+            ledger.resetCvvFailures(card);
+            return null;
+        }
+        if (ledger.recordCvvFailure(card, maxCvvFailures)) {
+            writer.recordCardBlocked(card.cardId);
+            meterRegistry.counter("finsecure.card.cvv_blocked").increment();
+            log.warn("Card {} blocked after {} consecutive CVV failures", card.cardId, maxCvvFailures);
+        }
+        return "INVALID_CVV";
+    }
+
+    private CardAuthorizationResponse record(long started, CardState card, CardAuthorizationRequest request,
+                                             String declineReason, Long authorizationId) {
+        AuthorizationStatus status = declineReason == null ? AuthorizationStatus.APPROVED : AuthorizationStatus.DECLINED;
+        if (card != null) {
+            LocalDateTime now = LocalDateTime.now();
+            writer.recordAuthorization(CardAuthorization.builder()
+                .id(authorizationId)
+                .card(Card.builder().id(card.cardId).build())
+                .amount(request.getAmount())
+                .channel(request.getChannel())
+                .international(request.isInternational())
+                .merchantName(request.getMerchantName() != null && request.getMerchantName().length() > 100
+                    ? request.getMerchantName().substring(0, 100) : request.getMerchantName())
+                .status(status)
+                .declineReason(declineReason)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        }
+        return respond(started, card, request, declineReason, authorizationId);
+    }
+
+    private CardAuthorizationResponse respond(long started, CardState card, CardAuthorizationRequest request,
+                                              String declineReason, Long authorizationId) {
+        AuthorizationStatus status = declineReason == null ? AuthorizationStatus.APPROVED : AuthorizationStatus.DECLINED;
+        if (declineReason != null) {
+            meterRegistry.counter("finsecure.card.declines", "reason", declineReason).increment();
+        }
+        Timer.builder("finsecure.card.authorization")
+            .tag("outcome", status.name().toLowerCase())
+            .register(meterRegistry)
+            .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+
+        return CardAuthorizationResponse.builder()
+            .authorizationId(authorizationId)
+            .cardId(card != null ? card.cardId : null)
+            .status(status)
+            .declineReason(declineReason)
+            .amount(request.getAmount())
+            .availableLimit(card != null ? CardLimitLedger.toAmount(card.available()) : null)
+            .build();
+    }
+
+    private CardAuthorizationResponse settled(Long authorizationId, CardState card, AuthorizationStatus status, long amount) {
+        return CardAuthorizationResponse.builder()
+            .authorizationId(authorizationId)
+            .cardId(card.cardId)
+            .status(status)
+            .amount(CardLimitLedger.toAmount(amount))
+            .availableLimit(CardLimitLedger.toAmount(card.available()))
+            .build();
+    }
+}
@@ -0,0 +1,277 @@
+package com.finsecure.service;
+
+import com.finsecure.entity.CardAuthorization;
+import com.finsecure.repository.CardAuthorizationJdbcRepository;
+import com.finsecure.repository.CardAuthorizationJdbcRepository.StatusChange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Write-behind persistence for the card limit ledger. Authorization decisions are made in
+// memory; this thread turns them into batched inserts, status updates and absolute
+// available_limit snapshots, one transaction per batch. A failed batch is retried; after
+// max-batch-failures in a row it is written one event at a time, and an event that still fails
+// for a reason other than the database being unreachable goes to the dead-letter file.
+//
+// Request threads must admit() before changing ledger state. Admission waits briefly for
+// queue capacity and is refused when the writer is that far behind, so callers decline
+// instead of parking a servlet thread.
+@Component
+@Slf4j
+public class CardAuthorizationWriter {
+
+    private final CardAuthorizationJdbcRepository jdbcRepository;
+    private final CardLimitLedger ledger;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final Semaphore capacity;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long admitTimeoutMs;
+    private final int maxBatchFailures;
+    private final Path deadLetterFile;
+    private final Timer flushTimer;
+    private final Counter busyCounter;
+    private final Counter deadLetteredCounter;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public CardAuthorizationWriter(CardAuthorizationJdbcRepository jdbcRepository,
+                                   CardLimitLedger ledger,
+                                   TransactionTemplate transactionTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.card.ledger.queue-capacity:100000}") int queueCapacity,
+                                   @Value("${app.card.ledger.batch-size:500}") int batchSize,
+                                   @Value("${app.card.ledger.flush-interval-ms:50}") long flushIntervalMs,
+                                   @Value("${app.card.ledger.admit-timeout-ms:50}") long admitTimeoutMs,
+                                   @Value("${app.card.ledger.max-batch-failures:3}") int maxBatchFailures,
+                                   @Value("${app.card.ledger.dead-letter-file:data/card-ledger-dead-letters.log}") String deadLetterFile) {
+        this.jdbcRepository = jdbcRepository;
+        this.ledger = ledger;
+        this.transactionTemplate = transactionTemplate;
+        this.capacity = new Semaphore(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.admitTimeoutMs = admitTimeoutMs;
+        this.maxBatchFailures = maxBatchFailures;
+        this.deadLetterFile = Path.of(deadLetterFile);
+        this.flushTimer = meterRegistry.timer("finsecure.card.ledger.flush");
+        this.busyCounter = meterRegistry.counter("finsecure.card.ledger.busy");
+        this.deadLetteredCounter = meterRegistry.counter("finsecure.card.ledger.dead_lettered");
+        Gauge.builder("finsecure.card.ledger.pending", queue, Collection::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writer = new Thread(this::run, "card-ledger-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // One permit per authorization or status change; a successful admit must be followed by
+    // exactly one of those records, or by cancelAdmission()
+    public boolean admit() {
+        try {
+            if (capacity.tryAcquire(admitTimeoutMs, TimeUnit.MILLISECONDS)) return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        busyCounter.increment();
+        return false;
+    }
+
+    public void cancelAdmission() {
+        capacity.release();
+    }
+
+    public void recordAuthorization(CardAuthorization authorization) {
+        queue.add(authorization);
+    }
+
+    public void recordStatusChange(StatusChange change, Long cardId) {
+        queue.add(new PendingChange(change, cardId));
+    }
+
+    // Rides on the admission of the authorization that caused it, so it holds no permit
+    public void recordCardBlocked(Long cardId) {
+        queue.add(new CardBlocked(cardId));
+    }
+
+    private record PendingChange(StatusChange change, Long cardId) {}
+
+    private record CardBlocked(Long cardId) {}
+
+    private void run() {
+        List<Object> batch = new ArrayList<>(batchSize);
+        int failures = 0;
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    Object first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                    if (first == null) continue;
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+                if (failures >= maxBatchFailures) {
+                    flushTimer.record(() -> flushOneByOne(batch));
+                } else {
+                    flushTimer.record(() -> flush(batch));
+                    batch.forEach(this::done);
+                    batch.clear();
+                }
+                failures = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                failures++;
+                log.warn("Card ledger flush of {} events failed ({} in a row), retrying: {}", batch.size(), failures, e.getMessage());
+                if (!running) {
+                    log.error("Card ledger shutting down with {} unpersisted events", batch.size() + queue.size());
+                    return;
+                }
+                sleepQuietly(1000);
+            }
+        }
+    }
+
+    // Isolates the event that keeps a batch failing. An outage is rethrown with the rest of the
+    // batch kept for the next retry; anything else is specific to the event and dead-letters it.
+    private void flushOneByOne(List<Object> batch) {
+        Iterator<Object> events = batch.iterator();
+        while (events.hasNext()) {
+            Object event = events.next();
+            try {
+                flush(List.of(event));
+            } catch (RuntimeException e) {
+                if (isOutage(e)) throw e;
+                deadLetter(event, e);
+            }
+            events.remove();
+            done(event);
+        }
+    }
+
+    private static boolean isOutage(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+            || e instanceof RecoverableDataAccessException
+            || e instanceof DataAccessResourceFailureException
+            || e instanceof TransactionException;
+    }
+
+    private void deadLetter(Object event, RuntimeException e) {
+        // One line per event, so the file can be replayed or grepped
+        String error = String.valueOf(e.getMessage()).replaceAll("\\s+", " ");
+        String line = LocalDateTime.now() + " " + describe(event) + " error=" + error;
+        deadLetteredCounter.increment();
+        log.error("Card ledger event dead-lettered: {}", line);
+        try {
+            Path dir = deadLetterFile.toAbsolutePath().getParent();
+            if (dir != null) Files.createDirectories(dir);
+            Files.writeString(deadLetterFile, line + System.lineSeparator(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException io) {
+            log.error("Cannot write card ledger dead-letter file {}: {}", deadLetterFile, io.getMessage());
+        }
+    }
+
+    private static String describe(Object event) {
+        if (event instanceof CardAuthorization a) {
+            return "authorization id=" + a.getId() + " card=" + (a.getCard() != null ? a.getCard().getId() : null)
+                + " amount=" + a.getAmount() + " channel=" + a.getChannel() + " status=" + a.getStatus()
+                + " declineReason=" + a.getDeclineReason() + " createdAt=" + a.getCreatedAt();
+        }
+        if (event instanceof PendingChange pending) {
+            StatusChange change = pending.change();
+            return "status-change card=" + pending.cardId() + " " + change;
+        }
+        if (event instanceof CardBlocked block) {
+            return "card-blocked card=" + block.cardId();
+        }
+        return String.valueOf(event);
+    }
+
+    private void done(Object event) {
+        if (!(event instanceof CardBlocked)) {
+            capacity.release();
+        }
+    }
+
+    private void flush(List<Object> batch) {
+        List<CardAuthorization> inserts = new ArrayList<>();
+        List<StatusChange> changes = new ArrayList<>();
+        Set<Long> touchedCards = new HashSet<>();
+        List<Long> blocked = new ArrayList<>();
+        for (Object event : batch) {
+            if (event instanceof CardAuthorization authorization) {
+                inserts.add(authorization);
+                if (authorization.getStatus() == CardAuthorization.AuthorizationStatus.APPROVED) {
+                    touchedCards.add(authorization.getCard().getId());
+                }
+            } else if (event instanceof PendingChange pending) {
+                changes.add(pending.change());
+                touchedCards.add(pending.cardId());
+            } else if (event instanceof CardBlocked block) {
+                blocked.add(block.cardId());
+            }
+        }
+
+        // Snapshot limits after collecting events: the counter already reflects every event in the batch
+        Map<Long, BigDecimal> limits = new HashMap<>();
+        for (Long cardId : touchedCards) {
+            BigDecimal available = ledger.availableLimit(cardId);
+            if (available != null) limits.put(cardId, available);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcRepository.insertAll(inserts);
+            jdbcRepository.updateStatuses(changes);
+            jdbcRepository.updateAvailableLimits(limits);
+            jdbcRepository.blockCards(blocked, LocalDateTime.now());
+        });
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.finsecure.service;
+
+import com.finsecure.entity.Card;
+import com.finsecure.entity.Card.CardStatus;
+import com.finsecure.entity.Card.CardType;
+import com.finsecure.repository.CardRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Authoritative available limits for cards handled by this node, in minor units (paise).
+// A card is loaded from the database on first use and then lives here: reservations are a
+// CAS on its counter and the database copy is written behind by CardAuthorizationWriter.
+// Authorizations for one card must therefore be routed to a single node.
+@Component
+@RequiredArgsConstructor
+public class CardLimitLedger {
+
+    private final CardRepository cardRepository;
+
+    private final Map<Long, CardState> cardsById = new ConcurrentHashMap<>();
+    private final Map<String, CardState> cardsByPanIndex = new ConcurrentHashMap<>();
+
+    public static final class CardState {
+        final Long cardId;
+        final CardType cardType;
+        final String cvvHash;
+        final AtomicLong available;
+        // Consecutive wrong CVVs; reset by a correct CVV or when the card is unblocked
+        final AtomicInteger cvvFailures = new AtomicInteger();
+        // Flags are refreshed in place when the card is changed; the counter is never reloaded
+        volatile CardStatus status;
+        volatile LocalDate expiryDate;
+        volatile boolean onlineEnabled;
+        volatile boolean internationalEnabled;
+        volatile boolean contactlessEnabled;
+
+        private CardState(Card card) {
+            this.cardId = card.getId();
+            this.cardType = card.getCardType();
+            this.cvvHash = card.getCvvHash();
+            this.available = new AtomicLong(toMinor(card.getAvailableLimit()));
+            applyFlags(card);
+        }
+
+        private void applyFlags(Card card) {
+            this.status = card.getStatus();
+            this.expiryDate = card.getExpiryDate();
+            this.onlineEnabled = Boolean.TRUE.equals(card.getOnlineEnabled());
+            this.internationalEnabled = Boolean.TRUE.equals(card.getInternationalEnabled());
+            this.contactlessEnabled = Boolean.TRUE.equals(card.getContactlessEnabled());
+        }
+
+        public long available() {
+            return available.get();
+        }
+    }
+
+    public CardState findByPanIndex(String panIndex) {
+        CardState state = cardsByPanIndex.get(panIndex);
+        if (state != null) return state;
+        return cardRepository.findByCardNumberHash(panIndex)
+            .map(card -> {
+                CardState loaded = register(card);
+                cardsByPanIndex.putIfAbsent(panIndex, loaded);
+                return loaded;
+            })
+            .orElse(null);
+    }
+
+    public CardState findById(Long cardId) {
+        CardState state = cardsById.get(cardId);
+        if (state != null) return state;
+        return cardRepository.findById(cardId).map(this::register).orElse(null);
+    }
+
+    public boolean reserve(CardState state, long amount) {
+        while (true) {
+            long current = state.available.get();
+            if (current < amount) return false;
+            if (state.available.compareAndSet(current, current - amount)) return true;
+        }
+    }
+
+    public void release(CardState state, long amount) {
+        state.available.addAndGet(amount);
+    }
+
+    public BigDecimal availableLimit(Long cardId) {
+        CardState state = cardsById.get(cardId);
+        return state != null ? toAmount(state.available.get()) : null;
+    }
+
+    // Called after a card change commits; only cards already resident need updating
+    public void refreshFlags(Card card) {
+        CardState state = cardsById.get(card.getId());
+        if (state != null) {
+            if (card.getStatus() == CardStatus.ACTIVE && state.status == CardStatus.BLOCKED) {
+                state.cvvFailures.set(0);
+            }
+            state.applyFlags(card);
+        }
+    }
+
+    // Returns true for the failure that reaches the limit, which is the one that blocks the card
+    public boolean recordCvvFailure(CardState state, int maxFailures) {
+        if (state.cvvFailures.incrementAndGet() != maxFailures) return false;
+        state.status = CardStatus.BLOCKED;
+        return true;
+    }
+
+    public void resetCvvFailures(CardState state) {
+        if (state.cvvFailures.get() != 0) {
+            state.cvvFailures.set(0);
+        }
+    }
+
+    // First registration wins so concurrent loads of one card share a single counter
+    private CardState register(Card card) {
+        CardState loaded = new CardState(card);
+        CardState existing = cardsById.putIfAbsent(card.getId(), loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    public static long toMinor(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).longValueExact();
+    }
+
+    public static BigDecimal toAmount(long minor) {
+        return BigDecimal.valueOf(minor, 2);
+    }
+}
@@ -10,14 +10,15 @@ import com.finsecure.repository.CardRepository;
 import com.finsecure.repository.CustomerRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Random;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,8 +30,10 @@ public class CardService {
     private final AccountRepository accountRepository;
     private final CustomerRepository customerRepository;
     private final NotificationService notificationService;
+    private final DashboardCache dashboardCache;
 
-    private final BCryptPasswordEncoder cvvEncoder = new BCryptPasswordEncoder();
+    private final CardVault cardVault;
+    private final CardLimitLedger cardLimitLedger;
 
     @Transactional
     public CardResponse issueDebitCard(Long accountId, String userEmail) {
@@ -55,20 +58,21 @@ public class CardService {
         }
 
         String cardNumber = generateCardNumber();
-        String cvv = generateCvv();
+        String cvv = cardVault.generateCvv();
 
         Card card = Card.builder()
             .account(account)
             .cardType(CardType.DEBIT)
             .maskedCardNumber(maskCardNumber(cardNumber))
-            .cardNumberHash(cvvEncoder.encode(cardNumber))
+            .cardNumberHash(cardVault.panIndex(cardNumber))
             .cardHolderName(account.getCustomer().getFirstName() + " " + account.getCustomer().getLastName())
             .expiryDate(LocalDate.now().plusYears(5))
-            .cvvHash(cvvEncoder.encode(cvv))
+            .cvvHash(cardVault.protectCvv(cvv))
             .status(CardStatus.ACTIVE)
             .build();
 
         card = cardRepository.save(card);
+        refreshLedgerAfterCommit(card);
 
         notificationService.createNotification(
             account.getCustomer().getUser().getId(),
@@ -95,22 +99,23 @@ public class CardService {
         }
 
         String cardNumber = generateCardNumber();
-        String cvv = generateCvv();
+        String cvv = cardVault.generateCvv();
 
         Card card = Card.builder()
             .account(account)
             .cardType(CardType.CREDIT)
             .maskedCardNumber(maskCardNumber(cardNumber))
-            .cardNumberHash(cvvEncoder.encode(cardNumber))
+            .cardNumberHash(cardVault.panIndex(cardNumber))
             .cardHolderName(account.getCustomer().getFirstName() + " " + account.getCustomer().getLastName())
             .expiryDate(LocalDate.now().plusYears(5))
-            .cvvHash(cvvEncoder.encode(cvv))
+            .cvvHash(cardVault.protectCvv(cvv))
             .status(CardStatus.ACTIVE)
             .creditLimit(creditLimit)
             .availableLimit(creditLimit)
             .build();
 
         card = cardRepository.save(card);
+        dashboardCache.evict(account.getCustomer().getUser().getId());
         return mapToResponse(card);
     }
 
@@ -139,6 +144,7 @@ public class CardService {
         }
 
         card = cardRepository.save(card);
+        refreshLedgerAfterCommit(card);
 
         notificationService.createNotification(
             card.getAccount().getCustomer().getUser().getId(),
@@ -159,24 +165,45 @@ public class CardService {
             .stream().map(this::mapToResponse).collect(Collectors.toList());
     }
 
-    private String generateCardNumber() {
-        Random random = new Random();
-        StringBuilder sb = new StringBuilder("4"); // Visa prefix
-        for (int i = 0; i < 15; i++) {
-            sb.append(random.nextInt(10));
-        }
-        return sb.toString();
+    // Card lookup by PAN: one unique-index probe on the HMAC, no scan and no per-row hashing
+    @Transactional(readOnly = true)
+    public Optional<Card> findByCardNumber(String cardNumber) {
+        return cardRepository.findByCardNumberHash(cardVault.panIndex(cardNumber));
     }
 
-    private String generateCvv() {
-        Random random = new Random();
-        return String.format("%03d", random.nextInt(1000));
+    public boolean verifyCvv(Card card, String cvv) {
+        return cardVault.verifyCvv(card.getCvvHash(), cvv);
+    }
+
+    private String generateCardNumber() {
+        // Visa prefix with a Luhn check digit; the unique PAN index makes collisions detectable
+        for (int attempt = 0; attempt < 5; attempt++) {
+            String cardNumber = cardVault.generatePan("4", 16);
+            if (!cardRepository.existsByCardNumberHash(cardVault.panIndex(cardNumber))) {
+                return cardNumber;
+            }
+        }
+        throw new IllegalStateException("Could not allocate a card number, please retry");
     }
 
     private String maskCardNumber(String cardNumber) {
         return "**** **** **** " + cardNumber.substring(cardNumber.length() - 4);
     }
 
+    // Authorizations read flags from the ledger, so it must not see an uncommitted change
+    private void refreshLedgerAfterCommit(Card card) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cardLimitLedger.refreshFlags(card);
+                }
+            });
+        } else {
+            cardLimitLedger.refreshFlags(card);
+        }
+    }
+
     private CardResponse mapToResponse(Card card) {
         return CardResponse.builder()
             .id(card.getId())
@@ -187,7 +214,8 @@ public class CardService {
             .expiryDate(card.getExpiryDate())
             .status(card.getStatus())
             .creditLimit(card.getCreditLimit())
-            .availableLimit(card.getAvailableLimit())
+            .availableLimit(Optional.ofNullable(cardLimitLedger.availableLimit(card.getId()))
+                .orElse(card.getAvailableLimit()))
             .internationalEnabled(card.getInternationalEnabled())
             .onlineEnabled(card.getOnlineEnabled())
             .contactlessEnabled(card.getContactlessEnabled())
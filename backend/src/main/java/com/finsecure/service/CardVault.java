@@ -0,0 +1,135 @@
+package com.finsecure.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+
+// Card secrets never touch the database in clear. The PAN is indexed by a keyed deterministic
+// HMAC, so a card can be found by number with one unique-index lookup; the CVV is stored as a
+// salted HMAC under a separate key and can only be verified, never looked up.
+@Component
+public class CardVault {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_KEY_BYTES = 32;
+    private static final int SALT_BYTES = 16;
+
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${app.card.pan-index-key}")
+    private String panIndexKey;
+
+    @Value("${app.card.cvv-key}")
+    private String cvvKey;
+
+    private ThreadLocal<Mac> panMac;
+    private ThreadLocal<Mac> cvvMac;
+
+    @PostConstruct
+    void init() {
+        panMac = macFor(panIndexKey, "app.card.pan-index-key");
+        cvvMac = macFor(cvvKey, "app.card.cvv-key");
+        if (panIndexKey.equals(cvvKey)) {
+            throw new IllegalStateException("PAN index key and CVV key must differ");
+        }
+    }
+
+    // 64 hex chars; the same PAN always yields the same value under the same key
+    public String panIndex(String pan) {
+        byte[] mac = panMac.get().doFinal(normalizePan(pan).getBytes(StandardCharsets.US_ASCII));
+        return HexFormat.of().formatHex(mac);
+    }
+
+    public String protectCvv(String cvv) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return encoder.encodeToString(salt) + ":" + encoder.encodeToString(cvvMac(salt, cvv));
+    }
+
+    public boolean verifyCvv(String storedCvv, String cvv) {
+        if (storedCvv == null || cvv == null) return false;
+        int separator = storedCvv.indexOf(':');
+        if (separator < 0) return false; // legacy BCrypt value, not verifiable here
+        Base64.Decoder decoder = Base64.getDecoder();
+        byte[] salt = decoder.decode(storedCvv.substring(0, separator));
+        byte[] expected = decoder.decode(storedCvv.substring(separator + 1));
+        return MessageDigest.isEqual(expected, cvvMac(salt, cvv));
+    }
+
+    public String generatePan(String prefix, int length) {
+        StringBuilder pan = new StringBuilder(prefix);
+        while (pan.length() < length - 1) {
+            pan.append(random.nextInt(10));
+        }
+        return pan.append(luhnCheckDigit(pan)).toString();
+    }
+
+    public String generateCvv() {
+        return String.format("%03d", random.nextInt(1000));
+    }
+
+    public static String normalizePan(String pan) {
+        StringBuilder digits = new StringBuilder(19);
+        for (int i = 0; i < pan.length(); i++) {
+            char c = pan.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if (c != ' ' && c != '-') {
+                throw new IllegalArgumentException("Invalid card number");
+            }
+        }
+        if (digits.length() < 12 || digits.length() > 19) {
+            throw new IllegalArgumentException("Invalid card number");
+        }
+        return digits.toString();
+    }
+
+    private byte[] cvvMac(byte[] salt, String cvv) {
+        Mac mac = cvvMac.get();
+        mac.update(salt);
+        return mac.doFinal(cvv.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static char luhnCheckDigit(CharSequence payload) {
+        int sum = 0;
+        boolean doubleIt = true;
+        for (int i = payload.length() - 1; i >= 0; i--) {
+            int digit = payload.charAt(i) - '0';
+            if (doubleIt) {
+                digit *= 2;
+                if (digit > 9) digit -= 9;
+            }
+            sum += digit;
+            doubleIt = !doubleIt;
+        }
+        return (char) ('0' + (10 - sum % 10) % 10);
+    }
+
+    // Mac instances are not thread-safe; one per thread avoids both locking and per-call init
+    private static ThreadLocal<Mac> macFor(String key, String property) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length < MIN_KEY_BYTES) {
+            throw new IllegalStateException(property + " must be at least " + MIN_KEY_BYTES + " bytes");
+        }
+        SecretKeySpec spec = new SecretKeySpec(keyBytes, ALGORITHM);
+        return ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(spec);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC unavailable", e);
+            }
+        });
+    }
+}
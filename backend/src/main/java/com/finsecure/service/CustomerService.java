@@ -3,18 +3,22 @@ package com.finsecure.service;
 import com.finsecure.dto.*;
 import com.finsecure.entity.*;
 import com.finsecure.repository.*;
+import com.finsecure.repository.CustomerRepository.DashboardCounts;
+import com.finsecure.repository.LedgerJdbcRepository.LedgerRow;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -24,9 +28,10 @@ import java.util.stream.Collectors;
 @Slf4j
 public class CustomerService {
 
+    private static final int RECENT_TRANSACTIONS = 10;
+
     private final CustomerRepository customerRepository;
     private final AccountRepository accountRepository;
-    private final TransactionRepository transactionRepository;
     private final LoanRepository loanRepository;
     private final KycDocumentRepository kycDocumentRepository;
     private final NotificationService notificationService;
@@ -34,6 +39,19 @@ public class CustomerService {
     private final CardService cardService;
     private final EmailService emailService;
     private final AuditService auditService;
+    private final IdGenerator idGenerator;
+    private final LedgerJdbcRepository ledgerRepository;
+    private final DashboardCache dashboardCache;
+    private final KycReviewQueue kycReviewQueue;
+    private final TransactionTemplate transactionTemplate;
+
+    private TransactionTemplate readOnlyTemplate;
+
+    @PostConstruct
+    void initReadOnlyTemplate() {
+        readOnlyTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTemplate.setReadOnly(true);
+    }
 
     @Transactional(readOnly = true)
     public CustomerProfileResponse getProfile(String email) {
@@ -42,9 +60,14 @@ public class CustomerService {
         return mapCustomerToProfile(customer);
     }
 
-    @Transactional(readOnly = true)
     public DashboardResponse getDashboard(String email) {
-        Customer customer = customerRepository.findByUserEmail(email)
+        return dashboardCache.get(email, () -> readOnlyTemplate.execute(status -> loadDashboard(email)));
+    }
+
+    // Fixed query count regardless of accounts or history: customer+user, accounts,
+    // recent transactions (one lateral query) and the aggregate counters
+    private DashboardResponse loadDashboard(String email) {
+        Customer customer = customerRepository.findWithUserByUserEmail(email)
             .orElseThrow(() -> new IllegalArgumentException("Customer not found"));
 
         List<Account> accounts = accountRepository.findByCustomerIdAndStatus(customer.getId(), Account.AccountStatus.ACTIVE);
@@ -55,26 +78,22 @@ public class CustomerService {
         List<AccountResponse> accountResponses = accounts.stream()
             .map(this::mapAccountToResponse).collect(Collectors.toList());
 
-        // Recent transactions for all accounts
-        List<TransactionResponse> recentTxns = accounts.stream()
-            .flatMap(acc -> transactionRepository.findRecentByAccountId(acc.getId(), PageRequest.of(0, 5)).stream())
-            .map(this::mapTransactionToResponse)
-            .limit(10)
+        Map<Long, String> accountNumbers = accounts.stream()
+            .collect(Collectors.toMap(Account::getId, Account::getAccountNumber));
+        List<TransactionResponse> recentTxns = ledgerRepository
+            .findRecentByAccountIds(accountNumbers.keySet(), RECENT_TRANSACTIONS).stream()
+            .map(row -> mapLedgerRowToResponse(row, accountNumbers.get(row.accountId())))
             .collect(Collectors.toList());
 
-        int activeLoans = (int) loanRepository.findByCustomerId(customer.getId()).stream()
-            .filter(l -> l.getStatus() == Loan.LoanStatus.ACTIVE || l.getStatus() == Loan.LoanStatus.DISBURSED)
-            .count();
-
-        long unreadNotifications = notificationService.getUnreadCount(customer.getUser().getId());
+        DashboardCounts counts = customerRepository.countDashboardItems(customer.getId(), customer.getUser().getId());
 
         return DashboardResponse.builder()
             .profile(mapCustomerToProfile(customer))
             .totalBalance(totalBalance)
             .totalAccounts(accounts.size())
-            .activeLoans(activeLoans)
-            .activeCards(0) // cards fetched separately
-            .unreadNotifications(unreadNotifications)
+            .activeLoans((int) counts.getActiveLoans())
+            .activeCards((int) counts.getActiveCards())
+            .unreadNotifications(counts.getUnreadNotifications())
             .accounts(accountResponses)
             .recentTransactions(recentTxns)
             .build();
@@ -100,6 +119,7 @@ public class CustomerService {
             .build();
 
         account = accountRepository.save(account);
+        dashboardCache.evict(customer.getUser().getId());
 
         notificationService.createNotification(customer.getUser().getId(),
             Notification.NotificationType.ACCOUNT,
@@ -141,6 +161,7 @@ public class CustomerService {
             .build();
 
         loan = loanRepository.save(loan);
+        dashboardCache.evict(customer.getUser().getId());
 
         notificationService.sendLoanNotification(customer.getUser().getId(), loanNumber, "APPLIED");
         emailService.sendLoanStatusEmail(customer.getUser().getEmail(), customer.getFirstName(), loanNumber, "APPLIED");
@@ -162,12 +183,14 @@ public class CustomerService {
             .mimeType(request.getMimeType())
             .status(KycDocument.DocumentStatus.UPLOADED)
             .build();
+        kycReviewQueue.enqueue(document, customer.getId());
 
         document = kycDocumentRepository.save(document);
 
         if (customer.getKycStatus() == Customer.KycStatus.PENDING) {
             customer.setKycStatus(Customer.KycStatus.SUBMITTED);
             customerRepository.save(customer);
+            dashboardCache.evict(customer.getUser().getId());
         }
 
         return mapKycToResponse(document);
@@ -210,11 +233,11 @@ public class CustomerService {
     }
 
     private String generateAccountNumber() {
-        return "FINS" + System.currentTimeMillis();
+        return idGenerator.nextAccountNumber();
     }
 
     private String generateLoanNumber() {
-        return "LN" + System.currentTimeMillis();
+        return idGenerator.nextLoanNumber();
     }
 
     private CustomerProfileResponse mapCustomerToProfile(Customer customer) {
@@ -254,19 +277,19 @@ public class CustomerService {
             .build();
     }
 
-    private TransactionResponse mapTransactionToResponse(Transaction txn) {
+    private TransactionResponse mapLedgerRowToResponse(LedgerRow row, String accountNumber) {
         return TransactionResponse.builder()
-            .id(txn.getId())
-            .referenceNumber(txn.getReferenceNumber())
-            .accountNumber(txn.getAccount().getAccountNumber())
-            .type(txn.getType())
-            .mode(txn.getMode())
-            .amount(txn.getAmount())
-            .balanceAfter(txn.getBalanceAfter())
-            .description(txn.getDescription())
-            .targetAccountNumber(txn.getTargetAccountNumber())
-            .status(txn.getStatus())
-            .createdAt(txn.getCreatedAt())
+            .id(row.id())
+            .referenceNumber(row.referenceNumber())
+            .accountNumber(accountNumber)
+            .type(row.type())
+            .mode(row.mode())
+            .amount(row.amount())
+            .balanceAfter(row.balanceAfter())
+            .description(row.description())
+            .targetAccountNumber(row.targetAccountNumber())
+            .status(row.status())
+            .createdAt(row.createdAt())
             .build();
     }
 
@@ -0,0 +1,89 @@
+package com.finsecure.service;
+
+import com.finsecure.dto.DashboardResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Per-customer dashboard snapshots keyed by user id. Writers call evict() inside their
+// transaction; the entry is dropped immediately and again after commit, and a per-user
+// version stamp stops a load that raced the write from caching a pre-commit snapshot. A first
+// load for an email has no user id to check yet, so it is only cached if no eviction at all
+// happened while it ran.
+@Component
+@Slf4j
+public class DashboardCache {
+
+    private final Cache<String, Long> userIdsByEmail;
+    private final Cache<Long, DashboardResponse> dashboards;
+    private final Cache<Long, AtomicLong> versions;
+    private final AtomicLong evictions = new AtomicLong();
+
+    public DashboardCache(@Value("${app.dashboard.cache-ttl-seconds:30}") long ttlSeconds,
+                          @Value("${app.dashboard.cache-max-size:10000}") long maxSize,
+                          MeterRegistry meterRegistry) {
+        this.userIdsByEmail = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
+        this.dashboards = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+        this.versions = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, dashboards, "dashboard");
+    }
+
+    public DashboardResponse get(String email, Supplier<DashboardResponse> loader) {
+        Long userId = userIdsByEmail.getIfPresent(email);
+        AtomicLong version = null;
+        long seen;
+        if (userId != null) {
+            DashboardResponse cached = dashboards.getIfPresent(userId);
+            if (cached != null) return cached;
+            version = versionOf(userId);
+            seen = version.get();
+        } else {
+            seen = evictions.get();
+        }
+
+        DashboardResponse dashboard = loader.get();
+        if (userId == null) {
+            userId = dashboard.getProfile().getUserId();
+            userIdsByEmail.put(email, userId);
+            if (evictions.get() == seen) {
+                dashboards.put(userId, dashboard);
+            }
+        } else if (version.get() == seen) {
+            dashboards.put(userId, dashboard);
+        }
+        return dashboard;
+    }
+
+    public void evict(Long userId) {
+        if (userId == null) return;
+        CacheEviction.nowAndAfterCompletion(() -> invalidate(userId));
+    }
+
+    private void invalidate(Long userId) {
+        versionOf(userId).incrementAndGet();
+        evictions.incrementAndGet();
+        dashboards.invalidate(userId);
+    }
+
+    private AtomicLong versionOf(Long userId) {
+        return versions.get(userId, id -> new AtomicLong());
+    }
+}
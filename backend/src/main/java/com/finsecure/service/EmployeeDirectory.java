@@ -0,0 +1,52 @@
+package com.finsecure.service;
+
+import com.finsecure.entity.Employee;
+import com.finsecure.repository.EmployeeRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Employee id per login email for reviewer actions. A miss is one indexed lookup through
+// users.email; a hit costs no query, and the caller links the employee with a reference
+// proxy rather than loading the row. The email-to-employee mapping only changes when employee
+// or user rows are edited in the database directly (the application has no such write path),
+// so entries simply expire after ttl-minutes; unknown emails are not cached, so a newly added
+// employee is found on first use.
+@Component
+public class EmployeeDirectory {
+
+    private final EmployeeRepository employeeRepository;
+    private final Cache<String, Long> employeeIds;
+
+    public EmployeeDirectory(EmployeeRepository employeeRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.employee.directory.ttl-minutes:10}") long ttlMinutes,
+                             @Value("${app.employee.directory.max-size:10000}") long maxSize) {
+        this.employeeRepository = employeeRepository;
+        this.employeeIds = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, employeeIds, "employee_directory");
+    }
+
+    // Empty for users without an employee record (e.g. admins); those are not cached
+    public Optional<Employee> findReference(String email) {
+        Long id = employeeIds.getIfPresent(email);
+        if (id == null) {
+            id = employeeRepository.findIdByUserEmail(email).orElse(null);
+            if (id == null) {
+                return Optional.empty();
+            }
+            employeeIds.put(email, id);
+        }
+        return Optional.of(employeeRepository.getReferenceById(id));
+    }
+}
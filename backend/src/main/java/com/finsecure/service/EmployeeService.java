@@ -3,6 +3,7 @@ package com.finsecure.service;
 import com.finsecure.dto.*;
 import com.finsecure.entity.*;
 import com.finsecure.repository.*;
+import com.finsecure.security.ActiveUserCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -20,12 +21,16 @@ import java.util.stream.Collectors;
 public class EmployeeService {
 
     private final CustomerRepository customerRepository;
-    private final EmployeeRepository employeeRepository;
     private final KycDocumentRepository kycDocumentRepository;
     private final LoanRepository loanRepository;
     private final NotificationService notificationService;
     private final EmailService emailService;
     private final AuditService auditService;
+    private final DashboardCache dashboardCache;
+    private final UserRepository userRepository;
+    private final ActiveUserCache activeUserCache;
+    private final EmployeeDirectory employeeDirectory;
+    private final KycReviewQueue kycReviewQueue;
 
     @Transactional(readOnly = true)
     public Page<CustomerProfileResponse> getAllCustomers(Pageable pageable) {
@@ -42,19 +47,29 @@ public class EmployeeService {
         return kycDocumentRepository.findPendingDocuments(pageable).map(this::mapKycToResponse);
     }
 
+    @Transactional
+    public List<KycDocumentResponse> claimKycDocuments(int size, String employeeEmail) {
+        return kycReviewQueue.claim(employeeEmail, size).stream()
+            .map(this::mapKycToResponse).collect(Collectors.toList());
+    }
+
+    @Transactional
+    public void releaseKycDocument(Long documentId, String employeeEmail) {
+        kycReviewQueue.release(documentId, employeeEmail);
+    }
+
+    public KycQueueStatsResponse getKycQueueStats() {
+        return kycReviewQueue.stats();
+    }
+
     @Transactional
     public KycDocumentResponse verifyKycDocument(KycVerificationRequest request, String employeeEmail) {
-        KycDocument document = kycDocumentRepository.findById(request.getDocumentId())
+        // Row lock so a decision cannot race a claim, a release or another reviewer's decision
+        KycDocument document = kycDocumentRepository.findByIdForUpdate(request.getDocumentId())
             .orElseThrow(() -> new IllegalArgumentException("KYC document not found"));
+        kycReviewQueue.checkDecision(document, employeeEmail);
 
-        Employee employee = employeeRepository.findByUserId(
-            document.getCustomer().getUser().getId())
-            .orElse(null);
-
-        // Find employee by email
-        Employee emp = employeeRepository.findAll().stream()
-            .filter(e -> e.getUser().getEmail().equals(employeeEmail))
-            .findFirst().orElse(null);
+        Employee emp = employeeDirectory.findReference(employeeEmail).orElse(null);
 
         if ("APPROVE".equalsIgnoreCase(request.getAction())) {
             document.setStatus(KycDocument.DocumentStatus.APPROVED);
@@ -69,6 +84,7 @@ public class EmployeeService {
             if (approvedDocs >= 2) {
                 customer.setKycStatus(Customer.KycStatus.APPROVED);
                 customerRepository.save(customer);
+                dashboardCache.evict(customer.getUser().getId());
                 notificationService.sendKycNotification(customer.getUser().getId(), "APPROVED");
                 emailService.sendKycStatusEmail(customer.getUser().getEmail(),
                     customer.getFirstName(), "APPROVED", null);
@@ -76,6 +92,7 @@ public class EmployeeService {
         } else if ("REJECT".equalsIgnoreCase(request.getAction())) {
             document.setStatus(KycDocument.DocumentStatus.REJECTED);
             document.setRejectionReason(request.getRejectionReason());
+            document.setVerifiedAt(LocalDateTime.now());
             document.setVerifiedBy(emp);
 
             notificationService.sendKycNotification(document.getCustomer().getUser().getId(), "REJECTED");
@@ -84,11 +101,31 @@ public class EmployeeService {
         } else {
             throw new IllegalArgumentException("Invalid action. Use APPROVE or REJECT.");
         }
+        kycReviewQueue.complete(document, request.getAction());
 
         document = kycDocumentRepository.save(document);
         return mapKycToResponse(document);
     }
 
+    @Transactional
+    public void updateUserStatus(Long userId, UserStatusRequest request, String adminEmail) {
+        User user = userRepository.findById(userId)
+            .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+        if (user.getEmail().equals(adminEmail)) {
+            throw new IllegalArgumentException("You cannot change the status of your own account");
+        }
+
+        user.setActive(request.getActive());
+        userRepository.save(user);
+        // Existing tokens stop authenticating as soon as the cached status is dropped
+        activeUserCache.evict(user.getEmail());
+
+        auditService.logSuccess(user.getId(), user.getUsername(),
+            request.getActive() ? "USER_ENABLED" : "USER_DISABLED", "USER", user.getId().toString(),
+            "Changed by " + adminEmail + (request.getReason() != null ? ": " + request.getReason() : ""));
+    }
+
     @Transactional(readOnly = true)
     public Page<LoanResponse> getPendingLoans(Pageable pageable) {
         return loanRepository.findPendingLoans(pageable).map(this::mapLoanToResponse);
@@ -99,9 +136,7 @@ public class EmployeeService {
         Loan loan = loanRepository.findById(loanId)
             .orElseThrow(() -> new IllegalArgumentException("Loan not found"));
 
-        Employee emp = employeeRepository.findAll().stream()
-            .filter(e -> e.getUser().getEmail().equals(employeeEmail))
-            .findFirst().orElse(null);
+        Employee emp = employeeDirectory.findReference(employeeEmail).orElse(null);
 
         if ("APPROVE".equalsIgnoreCase(action)) {
             loan.setStatus(Loan.LoanStatus.APPROVED);
@@ -115,6 +150,7 @@ public class EmployeeService {
         }
 
         loan = loanRepository.save(loan);
+        dashboardCache.evict(loan.getCustomer().getUser().getId());
 
         notificationService.sendLoanNotification(loan.getCustomer().getUser().getId(),
             loan.getLoanNumber(), action.toUpperCase());
@@ -151,6 +187,9 @@ public class EmployeeService {
             .status(doc.getStatus())
             .rejectionReason(doc.getRejectionReason())
             .verifiedAt(doc.getVerifiedAt())
+            .priority(doc.getPriority())
+            .claimedBy(doc.getClaimedBy())
+            .leaseExpiresAt(doc.getLeaseExpiresAt())
             .createdAt(doc.getCreatedAt())
             .build();
     }
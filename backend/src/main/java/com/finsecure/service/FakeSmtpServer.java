@@ -0,0 +1,116 @@
+package com.finsecure.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Local SMTP sink for testing mail throughput offline. Accepts every message and discards it,
+// counting them in finsecure.mail.fake.received. Enable with app.mail.fake-smtp.enabled=true,
+// point spring.mail.host/port at it and set app.mail.simulation=false.
+// Listens on loopback only; never enable it in production.
+@Component
+@ConditionalOnProperty(name = "app.mail.fake-smtp.enabled", havingValue = "true")
+@Slf4j
+public class FakeSmtpServer {
+
+    private static final String HOST = "finsecure-fake-smtp";
+
+    private final int port;
+    private final Counter received;
+    private final AtomicInteger sessions = new AtomicInteger();
+
+    private volatile boolean running;
+    private ServerSocket serverSocket;
+    private Thread acceptor;
+
+    public FakeSmtpServer(@Value("${app.mail.fake-smtp.port:2525}") int port, MeterRegistry meterRegistry) {
+        this.port = port;
+        this.received = meterRegistry.counter("finsecure.mail.fake.received");
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        running = true;
+        acceptor = new Thread(this::acceptLoop, "fake-smtp-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.warn("Fake SMTP sink listening on localhost:{}; mail sent to it is discarded", port);
+    }
+
+    @PreDestroy
+    void stop() throws IOException, InterruptedException {
+        running = false;
+        serverSocket.close();
+        acceptor.join(2000);
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread session = new Thread(() -> serve(socket), "fake-smtp-" + sessions.incrementAndGet());
+                session.setDaemon(true);
+                session.start();
+            } catch (SocketException e) {
+                if (running) {
+                    log.warn("Fake SMTP accept failed: {}", e.getMessage());
+                }
+            } catch (IOException e) {
+                log.warn("Fake SMTP accept failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    // Just enough of RFC 5321 for JavaMail: greeting, EHLO, envelope, DATA and QUIT
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.ISO_8859_1))) {
+            reply(out, "220 " + HOST + " ESMTP");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                switch (command) {
+                    case "EHLO" -> reply(out, "250-" + HOST + "\r\n250-8BITMIME\r\n250 SIZE 10485760");
+                    case "HELO" -> reply(out, "250 " + HOST);
+                    case "MAIL", "RCPT", "RSET", "NOOP" -> reply(out, "250 OK");
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            // discard message content
+                        }
+                        received.increment();
+                        reply(out, "250 OK queued");
+                    }
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Fake SMTP session ended: {}", e.getMessage());
+        }
+    }
+
+    private void reply(Writer out, String response) throws IOException {
+        out.write(response);
+        out.write("\r\n");
+        out.flush();
+    }
+}
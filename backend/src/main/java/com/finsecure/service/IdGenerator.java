@@ -0,0 +1,83 @@
+package com.finsecure.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Snowflake-style ids: 41 bits of milliseconds since 2024-01-01, 10 bits of node id, 12 bits of sequence
+@Component
+@Slf4j
+public class IdGenerator {
+
+    private static final long EPOCH_MS = 1704067200000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int ENCODED_LENGTH = 13;
+    private static final char[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+
+    // (milliseconds since epoch << SEQUENCE_BITS) | sequence of the last issued id
+    private final AtomicLong state = new AtomicLong();
+    private final long nodeBits;
+
+    public IdGenerator(@Value("${app.id.node-id:-1}") long nodeId) {
+        if (nodeId < 0) {
+            nodeId = deriveNodeId();
+            log.warn("app.id.node-id not set, derived node id {} from host name; configure a unique id per instance", nodeId);
+        } else if (nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("app.id.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeBits = nodeId << SEQUENCE_BITS;
+    }
+
+    public long nextId() {
+        while (true) {
+            long current = state.get();
+            long now = System.currentTimeMillis() - EPOCH_MS;
+            // A full sequence carries into the timestamp (borrowing the next millisecond), and a clock
+            // that steps backwards keeps counting from the last issued value, so ids never repeat
+            long next = now > (current >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : current + 1;
+            if (state.compareAndSet(current, next)) {
+                return ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    public String nextAccountNumber() {
+        return encode("FINS", nextId());
+    }
+
+    public String nextLoanNumber() {
+        return encode("LN", nextId());
+    }
+
+    public String nextReferenceNumber() {
+        return encode("TXN", nextId());
+    }
+
+    // Fixed-width base 36 fits the 20-character number columns and sorts in issue order
+    private static String encode(String prefix, long id) {
+        int start = prefix.length();
+        char[] chars = new char[start + ENCODED_LENGTH];
+        prefix.getChars(0, start, chars, 0);
+        for (int i = chars.length - 1; i >= start; i--) {
+            chars[i] = DIGITS[(int) (id % 36)];
+            id /= 36;
+        }
+        return new String(chars);
+    }
+
+    private static long deriveNodeId() {
+        try {
+            return InetAddress.getLocalHost().getHostName().hashCode() & MAX_NODE_ID;
+        } catch (Exception e) {
+            // No usable host name: a random id is less likely to collide than a fixed one
+            return ThreadLocalRandom.current().nextLong(MAX_NODE_ID + 1);
+        }
+    }
+}
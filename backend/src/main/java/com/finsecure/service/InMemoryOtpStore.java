@@ -0,0 +1,141 @@
+package com.finsecure.service;
+
+import com.finsecure.entity.Otp.OtpPurpose;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Default OTP store: codes never touch the database. Expiry is driven by a timer wheel ticked
+// once a second, so the map holds only live codes. Codes do not survive a restart and are
+// only visible to the node that issued them; use app.otp.store=database behind a load
+// balancer without session affinity.
+@Component
+@ConditionalOnProperty(name = "app.otp.store", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryOtpStore implements OtpStore {
+
+    private static final long TICK_MS = 1000;
+
+    private record Key(String email, OtpPurpose purpose) {}
+
+    private static final class Entry {
+        final Key key;
+        final byte[] code;
+        final long expiresAt;
+        final AtomicInteger attempts = new AtomicInteger();
+
+        Entry(Key key, String code, long expiresAt) {
+            this.key = key;
+            this.code = code.getBytes(StandardCharsets.US_ASCII);
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final TimerWheel<Entry> wheel = new TimerWheel<>(System.currentTimeMillis() / TICK_MS);
+    private final int maxAttempts;
+    private final MeterRegistry meterRegistry;
+
+    private volatile boolean running;
+    private Thread ticker;
+
+    public InMemoryOtpStore(@Value("${app.otp.max-attempts:5}") int maxAttempts, MeterRegistry meterRegistry) {
+        this.maxAttempts = maxAttempts;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("finsecure.otp.active", entries, Map::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        ticker = new Thread(this::tick, "otp-expiry");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        ticker.interrupt();
+        ticker.join(TICK_MS * 2);
+    }
+
+    @Override
+    public void issue(String email, OtpPurpose purpose, String code, Duration ttl) {
+        Key key = new Key(email, purpose);
+        long expiresAt = System.currentTimeMillis() + ttl.toMillis();
+        Entry entry = new Entry(key, code, expiresAt);
+        // The replaced entry stays on the wheel; its expiry is a no-op once the key moved on
+        entries.put(key, entry);
+        synchronized (wheel) {
+            wheel.schedule(entry, Math.floorDiv(expiresAt + TICK_MS - 1, TICK_MS), this::expire);
+        }
+    }
+
+    @Override
+    public VerifyResult verify(String email, OtpPurpose purpose, String code) {
+        Key key = new Key(email, purpose);
+        Entry entry = entries.get(key);
+        if (entry == null || entry.expiresAt <= System.currentTimeMillis() || code == null) {
+            return VerifyResult.INVALID;
+        }
+        if (!MessageDigest.isEqual(entry.code, code.getBytes(StandardCharsets.US_ASCII))) {
+            if (entry.attempts.incrementAndGet() >= maxAttempts) {
+                entries.remove(key, entry);
+                meterRegistry.counter("finsecure.otp.locked").increment();
+            }
+            return VerifyResult.MISMATCH;
+        }
+        // Only one concurrent verify of the same code can win the removal
+        if (!entries.remove(key, entry)) {
+            return VerifyResult.INVALID;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    // Give the code back to a rolled-back transfer unless a newer one was issued meanwhile
+                    if (status != STATUS_COMMITTED && entry.expiresAt > System.currentTimeMillis()) {
+                        entries.putIfAbsent(key, entry);
+                    }
+                }
+            });
+        }
+        return VerifyResult.VERIFIED;
+    }
+
+    private void tick() {
+        while (running) {
+            try {
+                Thread.sleep(TICK_MS);
+            } catch (InterruptedException e) {
+                if (!running) return;
+            }
+            try {
+                synchronized (wheel) {
+                    wheel.advance(System.currentTimeMillis() / TICK_MS, this::expire);
+                }
+            } catch (RuntimeException e) {
+                log.error("OTP expiry tick failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void expire(Entry entry) {
+        entries.remove(entry.key, entry);
+    }
+}
@@ -0,0 +1,69 @@
+package com.finsecure.service;
+
+import com.finsecure.entity.Otp;
+import com.finsecure.entity.Otp.OtpPurpose;
+import com.finsecure.repository.OtpRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Persistent OTP store for deployments where send and verify may land on different nodes.
+// Every issue and verify is a database write; expired rows are purged on a schedule.
+@Component
+@ConditionalOnProperty(name = "app.otp.store", havingValue = "database")
+@Slf4j
+public class JpaOtpStore implements OtpStore {
+
+    private final OtpRepository otpRepository;
+    private final int maxAttempts;
+
+    public JpaOtpStore(OtpRepository otpRepository, @Value("${app.otp.max-attempts:5}") int maxAttempts) {
+        this.otpRepository = otpRepository;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    @Transactional
+    public void issue(String email, OtpPurpose purpose, String code, Duration ttl) {
+        otpRepository.invalidatePreviousOtps(email, purpose);
+        otpRepository.save(Otp.builder()
+            .email(email)
+            .otpCode(code)
+            .purpose(purpose)
+            .expiresAt(LocalDateTime.now().plus(ttl))
+            .used(false)
+            .attemptCount(0)
+            .build());
+    }
+
+    @Override
+    @Transactional
+    public VerifyResult verify(String email, OtpPurpose purpose, String code) {
+        Otp otp = otpRepository.findValidOtp(email, purpose, LocalDateTime.now()).orElse(null);
+        if (otp == null || code == null || otp.getAttemptCount() >= maxAttempts) {
+            return VerifyResult.INVALID;
+        }
+        if (!MessageDigest.isEqual(otp.getOtpCode().getBytes(StandardCharsets.US_ASCII),
+                code.getBytes(StandardCharsets.US_ASCII))) {
+            otpRepository.incrementAttemptCount(otp.getId());
+            return VerifyResult.MISMATCH;
+        }
+        otp.setUsed(true);
+        otpRepository.save(otp);
+        return VerifyResult.VERIFIED;
+    }
+
+    @Scheduled(cron = "${app.otp.purge-cron:0 */15 * * * *}")
+    public void purgeExpired() {
+        otpRepository.deleteExpiredOtps(LocalDateTime.now());
+        log.debug("Purged expired OTPs");
+    }
+}
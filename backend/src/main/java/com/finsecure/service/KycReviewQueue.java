@@ -0,0 +1,200 @@
+package com.finsecure.service;
+
+import com.finsecure.dto.KycQueueStatsResponse;
+import com.finsecure.entity.KycDocument;
+import com.finsecure.entity.KycDocument.DocumentStatus;
+import com.finsecure.repository.AccountRepository;
+import com.finsecure.repository.KycDocumentRepository;
+import com.finsecure.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Work queue for KYC review. Reviewers claim a batch of documents under a time-limited lease;
+// claiming uses FOR UPDATE SKIP LOCKED so concurrent reviewers (on any node) get disjoint
+// documents without waiting on each other. Claiming again renews the leases already held and
+// tops the batch up. A lease that runs out makes the document claimable again and the sweep
+// puts it back to UPLOADED. Order is by queue rank: upload time minus a head start for the
+// customer's tier, so premium customers move ahead by a bounded amount and nothing starves.
+@Service
+@Slf4j
+public class KycReviewQueue {
+
+    private static final List<DocumentStatus> PENDING = List.of(DocumentStatus.UPLOADED, DocumentStatus.UNDER_REVIEW);
+
+    private final KycDocumentRepository kycDocumentRepository;
+    private final AccountRepository accountRepository;
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final Duration lease;
+    private final int maxClaim;
+    private final BigDecimal premiumBalance;
+    private final BigDecimal privateBalance;
+    private final Duration premiumHeadStart;
+    private final Duration privateHeadStart;
+
+    private final Counter claimedCounter;
+    private final Counter expiredCounter;
+    private final Timer waitTimer;
+    private final Timer reviewTimer;
+
+    public KycReviewQueue(KycDocumentRepository kycDocumentRepository,
+                          AccountRepository accountRepository,
+                          UserRepository userRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.kyc.queue.lease-minutes:15}") long leaseMinutes,
+                          @Value("${app.kyc.queue.max-claim:20}") int maxClaim,
+                          @Value("${app.kyc.queue.premium-balance:500000}") BigDecimal premiumBalance,
+                          @Value("${app.kyc.queue.private-balance:5000000}") BigDecimal privateBalance,
+                          @Value("${app.kyc.queue.premium-head-start-hours:4}") long premiumHeadStartHours,
+                          @Value("${app.kyc.queue.private-head-start-hours:12}") long privateHeadStartHours) {
+        this.kycDocumentRepository = kycDocumentRepository;
+        this.accountRepository = accountRepository;
+        this.userRepository = userRepository;
+        this.meterRegistry = meterRegistry;
+        this.lease = Duration.ofMinutes(leaseMinutes);
+        this.maxClaim = maxClaim;
+        this.premiumBalance = premiumBalance;
+        this.privateBalance = privateBalance;
+        this.premiumHeadStart = Duration.ofHours(premiumHeadStartHours);
+        this.privateHeadStart = Duration.ofHours(privateHeadStartHours);
+
+        this.claimedCounter = meterRegistry.counter("finsecure.kyc.claimed");
+        this.expiredCounter = meterRegistry.counter("finsecure.kyc.lease.expired");
+        this.waitTimer = Timer.builder("finsecure.kyc.wait")
+            .description("Time from upload until a reviewer first claims the document")
+            .publishPercentiles(0.5, 0.95)
+            .register(meterRegistry);
+        this.reviewTimer = Timer.builder("finsecure.kyc.review")
+            .description("Time from claim until the reviewer's decision")
+            .publishPercentiles(0.5, 0.95)
+            .register(meterRegistry);
+    }
+
+    // Called on upload, before the document is saved
+    public void enqueue(KycDocument document, Long customerId) {
+        BigDecimal balance = accountRepository.sumActiveBalanceByCustomerId(customerId);
+        int priority = balance.compareTo(privateBalance) >= 0 ? 2 : balance.compareTo(premiumBalance) >= 0 ? 1 : 0;
+        Duration headStart = priority == 2 ? privateHeadStart : priority == 1 ? premiumHeadStart : Duration.ZERO;
+        document.setPriority(priority);
+        document.setQueueRankAt(LocalDateTime.now().minus(headStart));
+    }
+
+    // Returns every document the reviewer now holds, oldest rank first, with leases renewed
+    @Transactional
+    public List<KycDocument> claim(String reviewerEmail, int size) {
+        if (size < 1 || size > maxClaim) {
+            throw new IllegalArgumentException("Batch size must be between 1 and " + maxClaim);
+        }
+        Long reviewerId = reviewerId(reviewerEmail);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(lease);
+
+        List<KycDocument> held = new ArrayList<>(kycDocumentRepository.findActiveClaims(reviewerId, now));
+        held.forEach(doc -> doc.setLeaseExpiresAt(expiresAt));
+
+        int wanted = size - held.size();
+        if (wanted > 0) {
+            List<KycDocument> claimed = kycDocumentRepository.findClaimableForUpdate(PENDING, now, PageRequest.of(0, wanted));
+            for (KycDocument doc : claimed) {
+                // Only first claims count towards wait time; a re-queued document was already counted
+                if (doc.getClaimedAt() == null) {
+                    waitTimer.record(Duration.between(doc.getCreatedAt(), now));
+                }
+                doc.setStatus(DocumentStatus.UNDER_REVIEW);
+                doc.setClaimedBy(reviewerId);
+                doc.setClaimedAt(now);
+                doc.setLeaseExpiresAt(expiresAt);
+            }
+            claimedCounter.increment(claimed.size());
+            held.addAll(claimed);
+        }
+        log.debug("Reviewer {} holds {} KYC documents until {}", reviewerId, held.size(), expiresAt);
+        return held;
+    }
+
+    // Hands a claimed document back to the queue at its original rank
+    @Transactional
+    public void release(Long documentId, String reviewerEmail) {
+        KycDocument document = kycDocumentRepository.findByIdForUpdate(documentId)
+            .orElseThrow(() -> new IllegalArgumentException("KYC document not found"));
+        Long reviewerId = reviewerId(reviewerEmail);
+        if (document.getStatus() != DocumentStatus.UNDER_REVIEW || !reviewerId.equals(document.getClaimedBy())) {
+            throw new IllegalStateException("KYC document is not claimed by you");
+        }
+        document.setStatus(DocumentStatus.UPLOADED);
+        clearClaim(document);
+    }
+
+    // Caller holds the row lock (findByIdForUpdate). A decision needs a pending document that is
+    // unclaimed, claimed by this reviewer, or whose lease has run out.
+    public void checkDecision(KycDocument document, String reviewerEmail) {
+        if (!PENDING.contains(document.getStatus())) {
+            throw new IllegalStateException("KYC document has already been " + document.getStatus().name().toLowerCase());
+        }
+        if (document.getClaimedBy() != null
+                && document.getLeaseExpiresAt() != null
+                && document.getLeaseExpiresAt().isAfter(LocalDateTime.now())
+                && !document.getClaimedBy().equals(reviewerId(reviewerEmail))) {
+            throw new IllegalStateException("KYC document is claimed by another reviewer until " + document.getLeaseExpiresAt());
+        }
+    }
+
+    // Records the decision and drops the lease; the status is set by the caller
+    public void complete(KycDocument document, String action) {
+        if (document.getClaimedBy() != null) {
+            reviewTimer.record(Duration.between(document.getClaimedAt(), LocalDateTime.now()));
+        }
+        clearClaim(document);
+        meterRegistry.counter("finsecure.kyc.decided", "action", action.toUpperCase()).increment();
+    }
+
+    @Scheduled(fixedDelayString = "${app.kyc.queue.sweep-interval-ms:60000}")
+    @Transactional
+    public void requeueExpired() {
+        int requeued = kycDocumentRepository.requeueExpired(LocalDateTime.now());
+        if (requeued > 0) {
+            expiredCounter.increment(requeued);
+            log.info("Re-queued {} KYC documents with expired review leases", requeued);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public KycQueueStatsResponse stats() {
+        LocalDateTime now = LocalDateTime.now();
+        Long oldestWaitingMinutes = kycDocumentRepository.findOldestClaimable(PENDING, now)
+            .map(oldest -> Duration.between(oldest, now).toMinutes())
+            .orElse(0L);
+        return KycQueueStatsResponse.builder()
+            .queued(kycDocumentRepository.countClaimable(PENDING, now))
+            .inReview(kycDocumentRepository.countInReview(now))
+            .oldestWaitingMinutes(oldestWaitingMinutes)
+            .reviewedLastHour(kycDocumentRepository.countByVerifiedAtAfter(now.minusHours(1)))
+            .leaseMinutes(lease.toMinutes())
+            .build();
+    }
+
+    private Long reviewerId(String email) {
+        return userRepository.findIdByEmail(email)
+            .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    }
+
+    // claimedAt is kept as the last claim time so a re-queued document is not counted as a new wait
+    private void clearClaim(KycDocument document) {
+        document.setClaimedBy(null);
+        document.setLeaseExpiresAt(null);
+    }
+}
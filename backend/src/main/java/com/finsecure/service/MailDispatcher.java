@@ -0,0 +1,310 @@
+package com.finsecure.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finsecure.service.MailSpool.SpooledMail;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+// Sends mail from the durable MailSpool. Each worker keeps its own SMTP connection open
+// across batches (closed after an idle period or max-messages-per-connection) instead of
+// connecting per message. Failed messages are retried with exponential backoff and moved to
+// the dead-letter directory after max-attempts. Unsent mail survives a restart.
+@Component
+@Slf4j
+public class MailDispatcher {
+
+    private final JavaMailSenderImpl mailSender;
+    private final MailSpool spool;
+    private final DelayQueue<QueuedMail> queue = new DelayQueue<>();
+
+    private final boolean simulationMode;
+    private final String fromEmail;
+    private final int workerCount;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final long maxBackoffMs;
+    private final long idleCloseMs;
+    private final int maxMessagesPerConnection;
+
+    private final Timer sendTimer;
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter deadLetteredCounter;
+    private final Counter connectionsCounter;
+
+    private volatile boolean running;
+    private final List<Thread> workers = new ArrayList<>();
+
+    public MailDispatcher(JavaMailSenderImpl mailSender,
+                          ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.mail.simulation:true}") boolean simulationMode,
+                          @Value("${spring.mail.username:no-reply@finsecure.com}") String fromEmail,
+                          @Value("${app.mail.spool-dir:data/mail-spool}") String spoolDir,
+                          @Value("${app.mail.workers:2}") int workerCount,
+                          @Value("${app.mail.batch-size:50}") int batchSize,
+                          @Value("${app.mail.max-attempts:8}") int maxAttempts,
+                          @Value("${app.mail.retry-backoff-ms:2000}") long retryBackoffMs,
+                          @Value("${app.mail.max-backoff-ms:3600000}") long maxBackoffMs,
+                          @Value("${app.mail.idle-close-ms:30000}") long idleCloseMs,
+                          @Value("${app.mail.max-messages-per-connection:100}") int maxMessagesPerConnection) {
+        this.mailSender = mailSender;
+        this.spool = new MailSpool(Path.of(spoolDir), objectMapper);
+        this.simulationMode = simulationMode;
+        this.fromEmail = fromEmail;
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.idleCloseMs = idleCloseMs;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+
+        this.sendTimer = Timer.builder("finsecure.mail.send")
+            .description("Time to hand one message to the SMTP server")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        this.sentCounter = meterRegistry.counter("finsecure.mail.sent");
+        this.retriedCounter = meterRegistry.counter("finsecure.mail.retried");
+        this.deadLetteredCounter = meterRegistry.counter("finsecure.mail.dead_lettered");
+        this.connectionsCounter = meterRegistry.counter("finsecure.mail.connections");
+        Gauge.builder("finsecure.mail.pending", queue, DelayQueue::size)
+            .description("Messages spooled and not yet sent")
+            .register(meterRegistry);
+        Gauge.builder("finsecure.mail.dead_letters", spool, MailSpool::deadLetterCount)
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        List<SpooledMail> leftover = spool.open();
+        leftover.forEach(mail -> queue.add(new QueuedMail(mail)));
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::runWorker, "mail-sender-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        log.info("Mail dispatcher started: workers={}, batch={}, recovered={}", workerCount, batchSize, leftover.size());
+    }
+
+    // Unsent messages stay in the spool and are picked up on the next start
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            worker.join(5000);
+        }
+    }
+
+    // Returns once the message is fsynced to the spool; throws if it could not be persisted
+    public void submit(String to, String subject, String body, String html) {
+        SpooledMail mail = new SpooledMail(UUID.randomUUID().toString(), to, subject, body, html,
+            0, System.currentTimeMillis(), null);
+        try {
+            spool.write(mail);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot spool email to " + to, e);
+        }
+        queue.add(new QueuedMail(mail));
+    }
+
+    private void runWorker() {
+        SmtpConnection connection = new SmtpConnection();
+        List<QueuedMail> batch = new ArrayList<>(batchSize);
+        try {
+            while (running) {
+                QueuedMail first = queue.poll(idleCloseMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    connection.close();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                sendBatch(connection, batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            connection.close();
+        }
+    }
+
+    private void sendBatch(SmtpConnection connection, List<QueuedMail> batch) {
+        connection.validate();
+        for (QueuedMail queued : batch) {
+            SpooledMail mail = queued.mail;
+            try {
+                sendTimer.recordCallable(() -> {
+                    send(connection, mail);
+                    return null;
+                });
+            } catch (SendFailedException e) {
+                // Rejected recipient: the connection itself is still fine
+                failed(mail, e);
+                continue;
+            } catch (Exception e) {
+                connection.close();
+                failed(mail, e);
+                continue;
+            }
+            sentCounter.increment();
+            delivered(mail);
+        }
+    }
+
+    // The message is already with the server: a spool file that cannot be removed must not turn
+    // into a retry. It would only be re-sent if the process restarts before it is cleaned up.
+    private void delivered(SpooledMail mail) {
+        try {
+            spool.delete(mail);
+        } catch (IOException e) {
+            log.error("Email {} was sent but its spool file could not be removed: {}", mail.id(), e.getMessage());
+        }
+    }
+
+    private void send(SmtpConnection connection, SpooledMail mail) throws MessagingException {
+        if (simulationMode) {
+            log.info("=== EMAIL SIMULATION ===");
+            log.info("To: {}", mail.to());
+            log.info("Subject: {}", mail.subject());
+            log.info("Body: {}", mail.body());
+            if (mail.html() != null) {
+                log.info("(+ HTML alternative, {} chars)", mail.html().length());
+            }
+            log.info("======================");
+            return;
+        }
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, mail.html() != null, StandardCharsets.UTF_8.name());
+        helper.setFrom(fromEmail);
+        helper.setTo(mail.to());
+        helper.setSubject(mail.subject());
+        if (mail.html() != null) {
+            helper.setText(mail.body(), mail.html());
+        } else {
+            helper.setText(mail.body());
+        }
+        message.saveChanges();
+        connection.send(message);
+        log.debug("Email {} sent to {}", mail.id(), mail.to());
+    }
+
+    private void failed(SpooledMail mail, Exception e) {
+        int attempts = mail.attempts() + 1;
+        try {
+            if (attempts >= maxAttempts) {
+                spool.deadLetter(mail.retry(0, truncate(e.getMessage())));
+                deadLetteredCounter.increment();
+                log.error("Email {} to {} dead-lettered after {} attempts: {}", mail.id(), mail.to(), attempts, e.getMessage());
+                return;
+            }
+            long delay = Math.min(retryBackoffMs << Math.min(attempts - 1, 20), maxBackoffMs);
+            SpooledMail retry = mail.retry(System.currentTimeMillis() + delay, truncate(e.getMessage()));
+            spool.write(retry);
+            queue.add(new QueuedMail(retry));
+            retriedCounter.increment();
+            log.warn("Email {} to {} failed on attempt {}, retrying in {} ms: {}", mail.id(), mail.to(), attempts, delay, e.getMessage());
+        } catch (IOException io) {
+            // The previous spool file is still there; requeue it so the message is not lost for this run
+            log.error("Cannot update mail spool for {}: {}", mail.id(), io.getMessage());
+            queue.add(new QueuedMail(mail.retry(System.currentTimeMillis() + retryBackoffMs, mail.lastError())));
+        }
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+
+    private static final class QueuedMail implements Delayed {
+        final SpooledMail mail;
+
+        QueuedMail(SpooledMail mail) {
+            this.mail = mail;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(mail.nextAttemptAt() - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(mail.nextAttemptAt(), ((QueuedMail) other).mail.nextAttemptAt());
+        }
+    }
+
+    // One SMTP session per worker thread; never shared
+    private final class SmtpConnection {
+        private Transport transport;
+        private int sentOnTransport;
+
+        // Catches connections the server dropped while idle before a batch starts on them
+        void validate() {
+            if (transport != null && !transport.isConnected()) {
+                close();
+            }
+        }
+
+        void send(MimeMessage message) throws MessagingException {
+            if (transport == null || sentOnTransport >= maxMessagesPerConnection) {
+                close();
+                open();
+            }
+            transport.sendMessage(message, message.getAllRecipients());
+            sentOnTransport++;
+        }
+
+        private void open() throws MessagingException {
+            String protocol = mailSender.getProtocol() != null ? mailSender.getProtocol() : "smtp";
+            Transport opened = mailSender.getSession().getTransport(protocol);
+            opened.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+            transport = opened;
+            sentOnTransport = 0;
+            connectionsCounter.increment();
+        }
+
+        void close() {
+            if (transport == null) return;
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Error closing SMTP connection: {}", e.getMessage());
+            }
+            transport = null;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.finsecure.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Durable local queue for outgoing mail: one fsynced JSON file per message under pending/.
+// A retry rewrites the file through a temp file and an atomic rename, so a crash leaves
+// either the old or the new version. Messages that run out of attempts move to dead/.
+@Slf4j
+class MailSpool {
+
+    private static final String SUFFIX = ".json";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    // html is null for plain-text mail
+    record SpooledMail(String id, String to, String subject, String body, String html,
+                       int attempts, long nextAttemptAt, String lastError) {
+
+        SpooledMail retry(long nextAttemptAt, String error) {
+            return new SpooledMail(id, to, subject, body, html, attempts + 1, nextAttemptAt, error);
+        }
+    }
+
+    private final Path pending;
+    private final Path dead;
+    private final ObjectMapper objectMapper;
+
+    MailSpool(Path directory, ObjectMapper objectMapper) {
+        this.pending = directory.resolve("pending");
+        this.dead = directory.resolve("dead");
+        this.objectMapper = objectMapper;
+    }
+
+    // Creates the directories and returns everything left over from a previous run
+    List<SpooledMail> open() throws IOException {
+        Files.createDirectories(pending);
+        Files.createDirectories(dead);
+        List<SpooledMail> mails = new ArrayList<>();
+        try (Stream<Path> files = Files.list(pending)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TMP_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                } else if (name.endsWith(SUFFIX)) {
+                    try {
+                        mails.add(objectMapper.readValue(file.toFile(), SpooledMail.class));
+                    } catch (IOException e) {
+                        log.error("Moving unreadable mail spool file {} to dead letters: {}", name, e.getMessage());
+                        Files.move(file, dead.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+            }
+        }
+        return mails;
+    }
+
+    void write(SpooledMail mail) throws IOException {
+        writeAtomically(pending, mail);
+    }
+
+    void delete(SpooledMail mail) throws IOException {
+        Files.deleteIfExists(pending.resolve(mail.id() + SUFFIX));
+    }
+
+    void deadLetter(SpooledMail mail) throws IOException {
+        writeAtomically(dead, mail);
+        delete(mail);
+    }
+
+    long deadLetterCount() {
+        try (Stream<Path> files = Files.list(dead)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).count();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private void writeAtomically(Path directory, SpooledMail mail) throws IOException {
+        Path tmp = directory.resolve(mail.id() + TMP_SUFFIX);
+        ByteBuffer buffer = ByteBuffer.wrap(objectMapper.writeValueAsBytes(mail));
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(false);
+        }
+        Files.move(tmp, directory.resolve(mail.id() + SUFFIX), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
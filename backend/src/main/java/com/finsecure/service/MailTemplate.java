@@ -0,0 +1,76 @@
+package com.finsecure.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// A template parsed once into alternating literal and {{variable}} segments. Rendering appends
+// straight into the caller's buffer; no format string is re-parsed per message. Values are
+// HTML-escaped when the template is an HTML part.
+final class MailTemplate {
+
+    private final String name;
+    private final String[] literals;
+    private final String[] variables;
+    private final boolean html;
+
+    private MailTemplate(String name, String[] literals, String[] variables, boolean html) {
+        this.name = name;
+        this.literals = literals;
+        this.variables = variables;
+        this.html = html;
+    }
+
+    static MailTemplate parse(String name, String source, boolean html) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        int pos = 0;
+        while (true) {
+            int open = source.indexOf("{{", pos);
+            if (open < 0) break;
+            int close = source.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed {{ in template " + name + " at offset " + open);
+            }
+            String variable = source.substring(open + 2, close).trim();
+            if (variable.isEmpty()) {
+                throw new IllegalArgumentException("Empty variable in template " + name + " at offset " + open);
+            }
+            literals.add(source.substring(pos, open));
+            variables.add(variable);
+            pos = close + 2;
+        }
+        literals.add(source.substring(pos));
+        return new MailTemplate(name, literals.toArray(String[]::new), variables.toArray(String[]::new), html);
+    }
+
+    void render(Map<String, String> values, StringBuilder out) {
+        for (int i = 0; i < variables.length; i++) {
+            out.append(literals[i]);
+            String value = values.get(variables[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("Template " + name + " needs variable " + variables[i]);
+            }
+            if (html) {
+                escape(value, out);
+            } else {
+                out.append(value);
+            }
+        }
+        out.append(literals[variables.length]);
+    }
+
+    private static void escape(String value, StringBuilder out) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.finsecure.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Email templates, parsed once at startup. Each template is <name>.txt, starting with a
+// "Subject: ..." line and a blank line, plus an optional <name>.html body that turns the mail
+// into text+HTML multipart. Localized variants are <name>_<lang>.txt/.html and fall back to
+// the plain name. Files in app.mail.templates.dir override the bundled classpath set and are
+// reloaded when they change; a reload that fails to parse keeps the previous templates.
+@Component
+@Slf4j
+public class MailTemplates {
+
+    private static final String CLASSPATH_PATTERN = "classpath*:mail-templates/*";
+    private static final String SUBJECT_PREFIX = "Subject:";
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    public record RenderedMail(String subject, String text, String html) {}
+
+    private record CompiledTemplate(MailTemplate subject, MailTemplate text, MailTemplate html) {}
+
+    private final Path overrideDir;
+    private final String language;
+    private final List<String> required;
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    private volatile Map<String, CompiledTemplate> templates;
+    private volatile long overrideStamp;
+
+    public MailTemplates(@Value("${app.mail.templates.dir:}") String overrideDir,
+                         @Value("${app.mail.templates.language:en}") String language,
+                         @Value("${app.mail.templates.required:otp,welcome,transaction-alert,transaction-digest,kyc-status,loan-status}") List<String> required) {
+        this.overrideDir = overrideDir.isBlank() ? null : Path.of(overrideDir);
+        this.language = language;
+        this.required = required;
+        this.overrideStamp = stamp();
+        this.templates = load();
+        log.info("Loaded {} mail templates{}", templates.size(), this.overrideDir != null ? " (overrides from " + overrideDir + ")" : "");
+    }
+
+    public RenderedMail render(String name, Map<String, String> values) {
+        CompiledTemplate template = templates.get(name + "_" + language);
+        if (template == null) {
+            template = templates.get(name);
+        }
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown mail template: " + name);
+        }
+        return new RenderedMail(
+            render(template.subject(), values).strip(),
+            render(template.text(), values),
+            template.html() != null ? render(template.html(), values) : null);
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.templates.reload-interval-ms:5000}")
+    public void reloadIfChanged() {
+        if (overrideDir == null) return;
+        long current = stamp();
+        if (current == overrideStamp) return;
+        overrideStamp = current;
+        try {
+            templates = load();
+            log.info("Reloaded {} mail templates from {}", templates.size(), overrideDir);
+        } catch (RuntimeException e) {
+            log.error("Mail template reload failed, keeping previous templates: {}", e.getMessage());
+        }
+    }
+
+    // Buffers are per thread and reused; an unusually large render is not kept around
+    private String render(MailTemplate template, Map<String, String> values) {
+        StringBuilder buffer = buffers.get();
+        buffer.setLength(0);
+        template.render(values, buffer);
+        String result = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+            buffers.remove();
+        }
+        return result;
+    }
+
+    private Map<String, CompiledTemplate> load() {
+        Map<String, String> sources = new HashMap<>();
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(CLASSPATH_PATTERN)) {
+                String file = resource.getFilename();
+                if (file != null && (file.endsWith(".txt") || file.endsWith(".html"))) {
+                    sources.put(file, resource.getContentAsString(StandardCharsets.UTF_8));
+                }
+            }
+            if (overrideDir != null && Files.isDirectory(overrideDir)) {
+                try (Stream<Path> files = Files.list(overrideDir)) {
+                    for (Path path : files.toList()) {
+                        String file = path.getFileName().toString();
+                        if (file.endsWith(".txt") || file.endsWith(".html")) {
+                            sources.put(file, Files.readString(path, StandardCharsets.UTF_8));
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read mail templates", e);
+        }
+
+        Map<String, CompiledTemplate> compiled = new HashMap<>();
+        sources.forEach((file, source) -> {
+            if (!file.endsWith(".txt")) return;
+            String name = file.substring(0, file.length() - ".txt".length());
+            compiled.put(name, compile(name, source, sources.get(name + ".html")));
+        });
+        for (String name : required) {
+            if (!compiled.containsKey(name)) {
+                throw new IllegalStateException("Missing mail template: " + name + ".txt");
+            }
+        }
+        return Map.copyOf(compiled);
+    }
+
+    private CompiledTemplate compile(String name, String source, String html) {
+        String text = source.replace("\r\n", "\n");
+        int firstBreak = text.indexOf('\n');
+        String firstLine = firstBreak < 0 ? text : text.substring(0, firstBreak);
+        if (!firstLine.startsWith(SUBJECT_PREFIX)) {
+            throw new IllegalArgumentException("Mail template " + name + ".txt must start with a Subject: line");
+        }
+        String body = firstBreak < 0 ? "" : text.substring(firstBreak + 1);
+        if (body.startsWith("\n")) {
+            body = body.substring(1);
+        }
+        return new CompiledTemplate(
+            MailTemplate.parse(name + ".subject", firstLine.substring(SUBJECT_PREFIX.length()), false),
+            MailTemplate.parse(name + ".txt", body, false),
+            html != null ? MailTemplate.parse(name + ".html", html, true) : null);
+    }
+
+    // Cheap change detector for the override directory: file count plus newest modification time
+    private long stamp() {
+        if (overrideDir == null || !Files.isDirectory(overrideDir)) return 0;
+        try (Stream<Path> files = Files.list(overrideDir)) {
+            long count = 0;
+            long newest = 0;
+            for (Path path : files.toList()) {
+                count++;
+                newest = Math.max(newest, Files.getLastModifiedTime(path).toMillis());
+            }
+            return newest * 31 + count;
+        } catch (IOException e) {
+            log.warn("Cannot scan mail template directory {}: {}", overrideDir, e.getMessage());
+            return overrideStamp;
+        }
+    }
+}
@@ -3,7 +3,8 @@ package com.finsecure.service;
 import com.finsecure.dto.NotificationResponse;
 import com.finsecure.entity.Notification;
 import com.finsecure.entity.Notification.NotificationType;
-import com.finsecure.entity.User;
+import com.finsecure.repository.NotificationJdbcRepository;
+import com.finsecure.repository.NotificationJdbcRepository.NewNotification;
 import com.finsecure.repository.NotificationRepository;
 import com.finsecure.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -12,6 +13,15 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -19,80 +29,159 @@ import org.springframework.transaction.annotation.Transactional;
 public class NotificationService {
 
     private final NotificationRepository notificationRepository;
+    private final NotificationJdbcRepository notificationJdbcRepository;
     private final UserRepository userRepository;
+    private final OutboxService outboxService;
+    private final DashboardCache dashboardCache;
+    private final NotificationStream notificationStream;
+    private final TransactionAlertDigest alertDigest;
 
+    // Called inside the caller's transaction with a user id it has just loaded, so no lookup is needed
     @Transactional
     public void createNotification(Long userId, NotificationType type, String title, String message, String referenceId, String referenceType) {
-        User user = userRepository.findById(userId).orElse(null);
-        if (user == null) {
-            log.warn("Cannot create notification: user {} not found", userId);
-            return;
+        write(List.of(new NewNotification(userId, type, title, message, referenceId, referenceType)));
+    }
+
+    // Outbox delivery path: a whole batch becomes one batched insert plus one counter upsert per user.
+    // Notifications for users that no longer exist are dropped rather than failing the batch.
+    @Transactional
+    public void createNotifications(List<NewNotification> notifications) {
+        if (notifications.isEmpty()) return;
+        Set<Long> existing = notificationJdbcRepository.findExistingUserIds(
+            notifications.stream().map(NewNotification::userId).collect(Collectors.toSet()));
+        List<NewNotification> deliverable = new ArrayList<>(notifications.size());
+        for (NewNotification notification : notifications) {
+            if (existing.contains(notification.userId())) {
+                deliverable.add(notification);
+            } else {
+                log.warn("Cannot create notification: user {} not found", notification.userId());
+            }
         }
+        write(deliverable);
+    }
 
-        Notification notification = Notification.builder()
-            .user(user)
-            .type(type)
-            .title(title)
-            .message(message)
-            .referenceId(referenceId)
-            .referenceType(referenceType)
-            .build();
+    private void write(List<NewNotification> notifications) {
+        if (notifications.isEmpty()) return;
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Long> perUser = notifications.stream()
+            .collect(Collectors.groupingBy(NewNotification::userId, Collectors.counting()));
+        // Counters first: the state row lock orders this insert against a concurrent read-all,
+        // so the watermark can never cover a row whose increment has not landed yet
+        notificationJdbcRepository.addUnread(perUser);
+        List<Long> ids = notificationJdbcRepository.insertAll(notifications, now);
+        perUser.keySet().forEach(dashboardCache::evict);
+        publishAfterCommit(notifications, ids, now);
+    }
 
-        notificationRepository.save(notification);
+    // Live subscribers only hear about rows that actually committed
+    private void publishAfterCommit(List<NewNotification> notifications, List<Long> ids, LocalDateTime createdAt) {
+        List<NotificationResponse> responses = new ArrayList<>(notifications.size());
+        for (int i = 0; i < notifications.size(); i++) {
+            NewNotification n = notifications.get(i);
+            responses.add(NotificationResponse.builder()
+                .id(i < ids.size() ? ids.get(i) : null)
+                .type(n.type())
+                .title(n.title())
+                .message(n.message())
+                .isRead(false)
+                .referenceId(n.referenceId())
+                .referenceType(n.referenceType())
+                .createdAt(createdAt)
+                .build());
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (int i = 0; i < responses.size(); i++) {
+                    notificationStream.publish(notifications.get(i).userId(), responses.get(i));
+                }
+            }
+        });
     }
 
     @Transactional(readOnly = true)
-    public Page<NotificationResponse> getNotifications(Long userId, Pageable pageable) {
-        return notificationRepository.findByUserId(userId, pageable)
-            .map(this::mapToResponse);
+    public Page<NotificationResponse> getNotifications(Long userId, boolean unreadOnly, Pageable pageable) {
+        long readUpToId = notificationJdbcRepository.findReadWatermark(userId);
+        Page<Notification> page = unreadOnly
+            ? notificationRepository.findUnread(userId, readUpToId, pageable)
+            : notificationRepository.findByUserId(userId, pageable);
+        return page.map(n -> mapToResponse(n, readUpToId));
     }
 
     @Transactional(readOnly = true)
     public long getUnreadCount(Long userId) {
-        return notificationRepository.countByUserIdAndIsRead(userId, false);
+        return notificationJdbcRepository.findUnreadCount(userId);
     }
 
     @Transactional
     public void markAllAsRead(Long userId) {
-        notificationRepository.markAllAsRead(userId);
+        notificationJdbcRepository.markAllRead(userId);
+        dashboardCache.evict(userId);
     }
 
+    // Scoped to the owner; reading an already-read or someone else's notification changes nothing.
+    // Anything at or below the watermark is read already, so only newer rows get a flag.
     @Transactional
-    public void markAsRead(Long notificationId) {
-        notificationRepository.findById(notificationId).ifPresent(n -> {
-            n.setIsRead(true);
-            notificationRepository.save(n);
-        });
+    public boolean markAsRead(Long userId, Long notificationId) {
+        long readUpToId = notificationJdbcRepository.lockReadWatermark(userId);
+        if (notificationId <= readUpToId || notificationRepository.markAsRead(notificationId, userId) == 0) {
+            return false;
+        }
+        notificationJdbcRepository.subtractUnread(userId, 1);
+        dashboardCache.evict(userId);
+        return true;
+    }
+
+    public Long resolveUserId(String email) {
+        return userRepository.findIdByEmail(email)
+            .orElseThrow(() -> new IllegalArgumentException("User not found"));
     }
 
+    // Helpers below are called from money-moving and review transactions; delivery happens after commit
     public void sendTransactionNotification(Long userId, String accountNumber, String amount, String type) {
-        createNotification(userId, NotificationType.TRANSACTION,
+        outboxService.enqueueNotification(userId, NotificationType.TRANSACTION,
             "Transaction Alert",
             String.format("A %s of Rs. %s has been processed on account %s", type, amount, accountNumber),
-            accountNumber, "ACCOUNT");
+            accountNumber, "ACCOUNT",
+            alertDigest.notificationDigest(userId, accountNumber, amount, type));
+    }
+
+    public record TransactionAlert(Long userId, String accountNumber, String amount, String type) {}
+
+    // Bulk variant: one batched outbox insert and no per-alert digest lookup, so callers should
+    // already have aggregated the alerts (e.g. one per recipient account)
+    public void sendTransactionNotifications(List<TransactionAlert> alerts) {
+        List<NewNotification> notifications = new ArrayList<>(alerts.size());
+        for (TransactionAlert alert : alerts) {
+            notifications.add(new NewNotification(alert.userId(), NotificationType.TRANSACTION,
+                "Transaction Alert",
+                String.format("A %s of Rs. %s has been processed on account %s", alert.type(), alert.amount(), alert.accountNumber()),
+                alert.accountNumber(), "ACCOUNT"));
+        }
+        outboxService.enqueueNotifications(notifications);
     }
 
     public void sendLoanNotification(Long userId, String loanNumber, String status) {
-        createNotification(userId, NotificationType.LOAN,
+        outboxService.enqueueNotification(userId, NotificationType.LOAN,
             "Loan Status Update",
             String.format("Your loan application %s has been %s", loanNumber, status),
             loanNumber, "LOAN");
     }
 
     public void sendKycNotification(Long userId, String status) {
-        createNotification(userId, NotificationType.KYC,
+        outboxService.enqueueNotification(userId, NotificationType.KYC,
             "KYC Status Update",
             String.format("Your KYC verification has been %s", status),
             null, null);
     }
 
-    private NotificationResponse mapToResponse(Notification notification) {
+    private NotificationResponse mapToResponse(Notification notification, long readUpToId) {
         return NotificationResponse.builder()
             .id(notification.getId())
             .type(notification.getType())
             .title(notification.getTitle())
             .message(notification.getMessage())
-            .isRead(notification.getIsRead())
+            .isRead(notification.getIsRead() || notification.getId() <= readUpToId)
             .referenceId(notification.getReferenceId())
             .referenceType(notification.getReferenceType())
             .createdAt(notification.getCreatedAt())
@@ -0,0 +1,218 @@
+package com.finsecure.service;
+
+import com.finsecure.config.AsyncConfig;
+import com.finsecure.dto.NotificationResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Per-node fan-out of new notifications to open SSE connections. Connections are servlet async
+// requests, so an idle subscriber holds a socket but no thread; events are queued per
+// connection and written by the small sseExecutor pool. A client that falls a full queue
+// behind gets a "resync" event and is disconnected, and should reload through the REST API.
+// Only subscribers connected to the node that committed the notification see the push.
+@Component
+@Slf4j
+public class NotificationStream {
+
+    private final ThreadPoolTaskExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final long timeoutMs;
+    private final int queueCapacity;
+    private final int maxConnections;
+    private final int maxConnectionsPerUser;
+
+    private final Map<Long, Deque<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger open = new AtomicInteger();
+
+    public NotificationStream(@Qualifier(AsyncConfig.SSE_EXECUTOR) ThreadPoolTaskExecutor executor,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.notifications.sse.timeout-ms:1800000}") long timeoutMs,
+                              @Value("${app.notifications.sse.queue-capacity:64}") int queueCapacity,
+                              @Value("${app.notifications.sse.max-connections:10000}") int maxConnections,
+                              @Value("${app.notifications.sse.max-connections-per-user:5}") int maxConnectionsPerUser) {
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.timeoutMs = timeoutMs;
+        this.queueCapacity = queueCapacity;
+        this.maxConnections = maxConnections;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        Gauge.builder("finsecure.sse.connections", open, AtomicInteger::get).register(meterRegistry);
+    }
+
+    // Throws IllegalStateException when the node is at its connection limit; a user opening
+    // more tabs than allowed pushes out their oldest connection instead
+    public SseEmitter subscribe(Long userId, long unreadCount) {
+        if (open.incrementAndGet() > maxConnections) {
+            open.decrementAndGet();
+            dropped("capacity");
+            throw new IllegalStateException("Too many open notification streams, retry later");
+        }
+        Connection connection = new Connection(userId, new SseEmitter(timeoutMs));
+        connection.emitter.onCompletion(() -> connection.close(null));
+        connection.emitter.onTimeout(() -> connection.close(null));
+        connection.emitter.onError(e -> connection.close(null));
+
+        List<Connection> evicted = new ArrayList<>();
+        connections.compute(userId, (id, existing) -> {
+            Deque<Connection> deque = existing != null ? existing : new ArrayDeque<>();
+            while (deque.size() >= maxConnectionsPerUser) {
+                evicted.add(deque.pollFirst());
+            }
+            deque.addLast(connection);
+            return deque;
+        });
+        evicted.forEach(c -> c.close("evicted"));
+
+        connection.offer(SseEmitter.event().name("unread").data(unreadCount).build());
+        return connection.emitter;
+    }
+
+    public void publish(Long userId, NotificationResponse notification) {
+        List<Connection> targets = snapshot(userId);
+        if (targets.isEmpty()) return;
+        // Built once and shared: the payload is serialized per connection when it is written
+        Set<DataWithMediaType> event = SseEmitter.event()
+            .id(String.valueOf(notification.getId()))
+            .name("notification")
+            .data(notification, MediaType.APPLICATION_JSON)
+            .build();
+        targets.forEach(c -> c.offer(event));
+    }
+
+    // Keeps proxies and load balancers from closing idle streams; skipped for connections that
+    // already have events waiting
+    @Scheduled(fixedRateString = "${app.notifications.sse.heartbeat-ms:15000}")
+    public void heartbeat() {
+        Set<DataWithMediaType> ping = SseEmitter.event().comment("keepalive").build();
+        for (Long userId : connections.keySet()) {
+            for (Connection connection : snapshot(userId)) {
+                if (connection.pending.isEmpty()) {
+                    connection.offer(ping);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (Long userId : connections.keySet()) {
+            snapshot(userId).forEach(c -> c.close(null));
+        }
+    }
+
+    private List<Connection> snapshot(Long userId) {
+        List<Connection> result = new ArrayList<>();
+        connections.computeIfPresent(userId, (id, deque) -> {
+            result.addAll(deque);
+            return deque;
+        });
+        return result;
+    }
+
+    private void unregister(Connection connection) {
+        connections.computeIfPresent(connection.userId, (id, deque) -> {
+            deque.remove(connection);
+            return deque.isEmpty() ? null : deque;
+        });
+        open.decrementAndGet();
+    }
+
+    private void dropped(String reason) {
+        meterRegistry.counter("finsecure.sse.dropped", "reason", reason).increment();
+    }
+
+    private final class Connection implements Runnable {
+        final Long userId;
+        final SseEmitter emitter;
+        final BlockingQueue<Set<DataWithMediaType>> pending = new ArrayBlockingQueue<>(queueCapacity);
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+        volatile boolean overflowed;
+
+        Connection(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(Set<DataWithMediaType> event) {
+            if (closed.get() || overflowed) return;
+            if (!pending.offer(event)) {
+                // Too slow to keep up: drop the backlog and tell the client to reload
+                overflowed = true;
+                pending.clear();
+                pending.offer(SseEmitter.event().name("resync").data("").build());
+                dropped("overflow");
+            }
+            schedule();
+        }
+
+        void schedule() {
+            if (!scheduled.compareAndSet(false, true)) return;
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                close("rejected");
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Set<DataWithMediaType> event;
+                while (!closed.get() && (event = pending.poll()) != null) {
+                    emitter.send(event);
+                }
+                if (overflowed) {
+                    close(null);
+                }
+            } catch (Exception e) {
+                log.debug("SSE write to user {} failed: {}", userId, e.getMessage());
+                close("send_failed");
+            } finally {
+                scheduled.set(false);
+            }
+            // An offer that raced with the end of the loop would otherwise wait for the next event
+            if (!closed.get() && !pending.isEmpty()) {
+                schedule();
+            }
+        }
+
+        void close(String reason) {
+            if (!closed.compareAndSet(false, true)) return;
+            unregister(this);
+            pending.clear();
+            if (reason != null) {
+                dropped(reason);
+            }
+            try {
+                emitter.complete();
+            } catch (Exception e) {
+                log.debug("SSE completion for user {} failed: {}", userId, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.finsecure.service;
+
+import com.finsecure.entity.Otp.OtpPurpose;
+
+import java.time.Duration;
+
+// Holds the one live OTP per (email, purpose). Issuing replaces any previous code; a code is
+// consumed by a successful verify and burned after too many wrong attempts.
+public interface OtpStore {
+
+    enum VerifyResult {
+        VERIFIED,
+        // Wrong code for a live OTP; counts towards the attempt limit even if the caller rolls back
+        MISMATCH,
+        // No live OTP: never issued, expired, already used or locked out
+        INVALID
+    }
+
+    void issue(String email, OtpPurpose purpose, String code, Duration ttl);
+
+    // Inside a transaction, a VERIFIED code only stays consumed if that transaction commits
+    VerifyResult verify(String email, OtpPurpose purpose, String code);
+}
@@ -0,0 +1,244 @@
+package com.finsecure.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finsecure.entity.Notification.NotificationType;
+import com.finsecure.entity.OutboxEvent;
+import com.finsecure.entity.OutboxEvent.OutboxStatus;
+import com.finsecure.repository.NotificationJdbcRepository.NewNotification;
+import com.finsecure.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxDispatcher {
+
+    private static final List<OutboxStatus> CLAIMABLE = List.of(OutboxStatus.PENDING, OutboxStatus.PROCESSING);
+    private static final TypeReference<Map<String, String>> PAYLOAD_TYPE = new TypeReference<>() {};
+    private static final long MAX_BACKOFF_MS = 3_600_000;
+    private static final int MAX_GROUP_CLAIM = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final NotificationService notificationService;
+    private final EmailService emailService;
+    private final TransactionAlertDigest alertDigest;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.retry-backoff-ms:2000}")
+    private long retryBackoffMs;
+
+    @Value("${app.outbox.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${app.outbox.retention-days:7}")
+    private int retentionDays;
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:500}")
+    public void dispatchPending() {
+        List<OutboxEvent> batch;
+        do {
+            batch = claimBatch();
+            if (!batch.isEmpty()) {
+                deliver(batch);
+            }
+        } while (batch.size() >= batchSize);
+    }
+
+    @Scheduled(cron = "0 30 3 * * *")
+    @Transactional
+    public void purgeDelivered() {
+        int deleted = outboxEventRepository.deleteSentBefore(LocalDateTime.now().minusDays(retentionDays));
+        log.info("Purged {} delivered outbox events", deleted);
+    }
+
+    // Claimed rows get a lease; a dispatcher that dies mid-batch leaves them to be re-claimed when it expires.
+    // A due grouped event pulls in the rest of its group so the whole digest goes out together.
+    private List<OutboxEvent> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> due = new ArrayList<>(
+                outboxEventRepository.findDueForUpdate(CLAIMABLE, now, PageRequest.of(0, batchSize)));
+            Set<String> groupKeys = new HashSet<>();
+            Set<Long> claimed = new HashSet<>();
+            for (OutboxEvent event : due) {
+                claimed.add(event.getId());
+                if (event.getGroupKey() != null) {
+                    groupKeys.add(event.getGroupKey());
+                }
+            }
+            if (!groupKeys.isEmpty()) {
+                for (OutboxEvent member : outboxEventRepository.findGroupMembersForUpdate(groupKeys, PageRequest.of(0, MAX_GROUP_CLAIM))) {
+                    if (claimed.add(member.getId())) {
+                        due.add(member);
+                    }
+                }
+            }
+            for (OutboxEvent event : due) {
+                event.setStatus(OutboxStatus.PROCESSING);
+                event.setNextAttemptAt(now.plusSeconds(leaseSeconds));
+            }
+            return due;
+        });
+    }
+
+    // One notification or email to produce, and the outbox events it stands for
+    private record Delivery<T>(List<OutboxEvent> events, T message) {}
+
+    private void deliver(List<OutboxEvent> batch) {
+        List<Long> delivered = new ArrayList<>(batch.size());
+        List<OutboxEvent> failed = new ArrayList<>();
+        List<Delivery<NewNotification>> notifications = new ArrayList<>();
+
+        for (List<OutboxEvent> unit : coalesce(batch)) {
+            try {
+                List<Map<String, String>> payloads = new ArrayList<>(unit.size());
+                for (OutboxEvent event : unit) {
+                    payloads.add(objectMapper.readValue(event.getPayload(), PAYLOAD_TYPE));
+                }
+                switch (unit.get(0).getEventType()) {
+                    case NOTIFICATION -> notifications.add(new Delivery<>(unit, unit.size() == 1
+                        ? toNotification(payloads.get(0))
+                        : alertDigest.renderNotification(payloads)));
+                    case EMAIL -> {
+                        Map<String, String> email = unit.size() == 1 ? payloads.get(0) : alertDigest.renderEmail(payloads);
+                        emailService.deliver(email.get("to"), email.get("subject"), email.get("body"), email.get("html"));
+                        recordDelivered(unit, delivered);
+                    }
+                }
+            } catch (Exception e) {
+                unit.forEach(event -> recordFailed(event, e, failed));
+            }
+        }
+
+        deliverNotifications(notifications, delivered, failed);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (!delivered.isEmpty()) {
+                outboxEventRepository.markSent(delivered, now);
+            }
+            for (OutboxEvent event : failed) {
+                scheduleRetry(event, now);
+                outboxEventRepository.save(event);
+            }
+        });
+    }
+
+    // Ungrouped events are delivered one by one; grouped events become one unit per group key
+    private List<List<OutboxEvent>> coalesce(List<OutboxEvent> batch) {
+        List<List<OutboxEvent>> units = new ArrayList<>(batch.size());
+        Map<String, List<OutboxEvent>> groups = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            if (event.getGroupKey() == null) {
+                units.add(List.of(event));
+            } else {
+                groups.computeIfAbsent(event.getGroupKey(), key -> new ArrayList<>()).add(event);
+            }
+        }
+        units.addAll(groups.values());
+        return units;
+    }
+
+    private NewNotification toNotification(Map<String, String> payload) {
+        return new NewNotification(
+            Long.valueOf(payload.get("userId")),
+            NotificationType.valueOf(payload.get("type")),
+            payload.get("title"),
+            payload.get("message"),
+            payload.get("referenceId"),
+            payload.get("referenceType"));
+    }
+
+    // All notifications in the batch are written together; if that fails, each is retried alone
+    // so one bad event cannot hold back the rest
+    private void deliverNotifications(List<Delivery<NewNotification>> notifications,
+                                      List<Long> delivered, List<OutboxEvent> failed) {
+        if (notifications.isEmpty()) return;
+        try {
+            notificationService.createNotifications(notifications.stream().map(Delivery::message).toList());
+            notifications.forEach(n -> recordDelivered(n.events(), delivered));
+            return;
+        } catch (Exception e) {
+            log.warn("Batched delivery of {} notifications failed, delivering individually: {}",
+                notifications.size(), e.getMessage());
+        }
+        for (Delivery<NewNotification> notification : notifications) {
+            try {
+                notificationService.createNotifications(List.of(notification.message()));
+                recordDelivered(notification.events(), delivered);
+            } catch (Exception e) {
+                notification.events().forEach(event -> recordFailed(event, e, failed));
+            }
+        }
+    }
+
+    private void recordDelivered(List<OutboxEvent> unit, List<Long> delivered) {
+        String type = unit.get(0).getEventType().name();
+        for (OutboxEvent event : unit) {
+            delivered.add(event.getId());
+            meterRegistry.counter("finsecure.outbox.delivered", "type", type).increment();
+            meterRegistry.timer("finsecure.outbox.delivery.lag", "type", type)
+                .record(Duration.between(event.getCreatedAt(), LocalDateTime.now()));
+        }
+        if (unit.size() > 1) {
+            meterRegistry.counter("finsecure.outbox.coalesced", "type", type).increment(unit.size() - 1);
+        }
+    }
+
+    private void recordFailed(OutboxEvent event, Exception e, List<OutboxEvent> failed) {
+        log.warn("Outbox event {} ({}) failed on attempt {}: {}",
+            event.getId(), event.getEventType().name(), event.getAttempts() + 1, e.getMessage());
+        event.setLastError(truncate(e.getMessage()));
+        failed.add(event);
+    }
+
+    private void scheduleRetry(OutboxEvent event, LocalDateTime now) {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        String type = event.getEventType().name();
+        if (attempts >= maxAttempts) {
+            event.setStatus(OutboxStatus.FAILED);
+            event.setProcessedAt(now);
+            meterRegistry.counter("finsecure.outbox.failed", "type", type).increment();
+            log.error("Outbox event {} ({}) abandoned after {} attempts", event.getId(), type, attempts);
+            return;
+        }
+        long delay = Math.min(retryBackoffMs << Math.min(attempts - 1, 20), MAX_BACKOFF_MS);
+        event.setStatus(OutboxStatus.PENDING);
+        event.setNextAttemptAt(now.plusNanos(delay * 1_000_000));
+        meterRegistry.counter("finsecure.outbox.retried", "type", type).increment();
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
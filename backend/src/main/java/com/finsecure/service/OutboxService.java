@@ -0,0 +1,113 @@
+package com.finsecure.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finsecure.entity.Notification.NotificationType;
+import com.finsecure.entity.OutboxEvent;
+import com.finsecure.entity.OutboxEvent.EventType;
+import com.finsecure.repository.NotificationJdbcRepository.NewNotification;
+import com.finsecure.repository.OutboxEventRepository;
+import com.finsecure.repository.OutboxJdbcRepository;
+import com.finsecure.repository.OutboxJdbcRepository.NewOutboxEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxJdbcRepository outboxJdbcRepository;
+    private final ObjectMapper objectMapper;
+
+    // Deferred delivery for events that may be coalesced: OutboxDispatcher delivers every pending
+    // event sharing the group key together once the earliest of them is due. Fields are extra
+    // payload entries the digest is rendered from.
+    public record Digest(String groupKey, LocalDateTime deliverAt, Map<String, String> fields) {}
+
+    // Side effects are recorded in the caller's transaction and published by OutboxDispatcher after commit
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueNotification(Long userId, NotificationType type, String title, String message,
+                                    String referenceId, String referenceType) {
+        enqueueNotification(userId, type, title, message, referenceId, referenceType, null);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueNotification(Long userId, NotificationType type, String title, String message,
+                                    String referenceId, String referenceType, Digest digest) {
+        enqueue(EventType.NOTIFICATION, notificationPayload(userId, type, title, message, referenceId, referenceType), digest);
+    }
+
+    // Many immediate notifications as one JDBC batch insert, for bulk operations
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueNotifications(List<NewNotification> notifications) {
+        if (notifications.isEmpty()) return;
+        LocalDateTime now = LocalDateTime.now();
+        List<NewOutboxEvent> events = new ArrayList<>(notifications.size());
+        for (NewNotification n : notifications) {
+            Map<String, String> payload = notificationPayload(n.userId(), n.type(), n.title(), n.message(),
+                n.referenceId(), n.referenceType());
+            events.add(new NewOutboxEvent(EventType.NOTIFICATION, serialize(payload), null, now));
+        }
+        outboxJdbcRepository.insertAll(events, now);
+    }
+
+    private Map<String, String> notificationPayload(Long userId, NotificationType type, String title, String message,
+                                                    String referenceId, String referenceType) {
+        Map<String, String> payload = new HashMap<>();
+        payload.put("userId", userId.toString());
+        payload.put("type", type.name());
+        payload.put("title", title);
+        payload.put("message", message);
+        payload.put("referenceId", referenceId);
+        payload.put("referenceType", referenceType);
+        return payload;
+    }
+
+    // html is optional; when present the mail is sent as text+HTML multipart
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueEmail(String to, String subject, String body, String html) {
+        enqueueEmail(to, subject, body, html, null);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueEmail(String to, String subject, String body, String html, Digest digest) {
+        Map<String, String> payload = new HashMap<>();
+        payload.put("to", to);
+        payload.put("subject", subject);
+        payload.put("body", body);
+        payload.put("html", html);
+        enqueue(EventType.EMAIL, payload, digest);
+    }
+
+    private void enqueue(EventType type, Map<String, String> payload, Digest digest) {
+        if (digest != null) {
+            payload.putAll(digest.fields());
+        }
+        OutboxEvent event = OutboxEvent.builder()
+            .eventType(type)
+            .payload(serialize(payload))
+            .groupKey(digest != null ? digest.groupKey() : null)
+            .nextAttemptAt(digest != null ? digest.deliverAt() : LocalDateTime.now())
+            .build();
+        outboxEventRepository.save(event);
+    }
+
+    private String serialize(Map<String, String> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox payload", e);
+        }
+    }
+}
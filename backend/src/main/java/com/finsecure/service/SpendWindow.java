@@ -0,0 +1,84 @@
+package com.finsecure.service;
+
+import java.util.Arrays;
+
+// Rolling spend totals for one card or account on one channel, in minor units. Two rings of
+// primitive buckets: 60 one-minute buckets for the hourly window and 96 quarter-hour buckets
+// for the daily window. A bucket is reset lazily when its slot is reused for a newer epoch,
+// so recording and checking are O(buckets) with no allocation.
+final class SpendWindow {
+
+    private static final long MINUTE_MS = 60_000L;
+    private static final long QUARTER_MS = 15 * MINUTE_MS;
+    private static final int MINUTE_SLOTS = 60;
+    private static final int QUARTER_SLOTS = 96;
+
+    private final long[] minuteAmounts = new long[MINUTE_SLOTS];
+    private final long[] minuteEpochs = new long[MINUTE_SLOTS];
+    private final long[] quarterAmounts = new long[QUARTER_SLOTS];
+    private final long[] quarterEpochs = new long[QUARTER_SLOTS];
+
+    SpendWindow() {
+        Arrays.fill(minuteEpochs, -1);
+        Arrays.fill(quarterEpochs, -1);
+    }
+
+    // Limits <= 0 are treated as unlimited; returns false without recording when either is exceeded
+    synchronized boolean tryAdd(long amount, long hourlyLimit, long dailyLimit, long now) {
+        if (hourlyLimit > 0 && total(minuteAmounts, minuteEpochs, now / MINUTE_MS) + amount > hourlyLimit) {
+            return false;
+        }
+        if (dailyLimit > 0 && total(quarterAmounts, quarterEpochs, now / QUARTER_MS) + amount > dailyLimit) {
+            return false;
+        }
+        add(amount, now, now);
+        return true;
+    }
+
+    // Records spend that happened at the given time; anything already outside both windows is ignored
+    synchronized void record(long amount, long at, long now) {
+        add(amount, at, now);
+    }
+
+    // Undoes a previous tryAdd or record made at the given time
+    synchronized void remove(long amount, long at, long now) {
+        add(-amount, at, now);
+    }
+
+    synchronized boolean isIdle(long now) {
+        return total(quarterAmounts, quarterEpochs, now / QUARTER_MS) <= 0;
+    }
+
+    private void add(long amount, long at, long now) {
+        long minute = at / MINUTE_MS;
+        if (minute > now / MINUTE_MS - MINUTE_SLOTS) {
+            bump(minuteAmounts, minuteEpochs, minute, amount);
+        }
+        long quarter = at / QUARTER_MS;
+        if (quarter > now / QUARTER_MS - QUARTER_SLOTS) {
+            bump(quarterAmounts, quarterEpochs, quarter, amount);
+        }
+    }
+
+    private static void bump(long[] amounts, long[] epochs, long epoch, long amount) {
+        int slot = (int) (epoch % amounts.length);
+        if (epochs[slot] != epoch) {
+            // A release for a bucket that has already been reused has nothing left to undo
+            if (epochs[slot] > epoch) return;
+            epochs[slot] = epoch;
+            amounts[slot] = 0;
+        }
+        amounts[slot] = Math.max(0, amounts[slot] + amount);
+    }
+
+    private static long total(long[] amounts, long[] epochs, long current) {
+        long oldest = current - amounts.length;
+        long sum = 0;
+        for (int i = 0; i < amounts.length; i++) {
+            if (epochs[i] > oldest && epochs[i] <= current) {
+                sum += amounts[i];
+            }
+        }
+        return sum;
+    }
+}
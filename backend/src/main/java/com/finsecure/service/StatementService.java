@@ -0,0 +1,219 @@
+package com.finsecure.service;
+
+import com.finsecure.entity.Account;
+import com.finsecure.repository.AccountRepository;
+import com.finsecure.repository.LedgerJdbcRepository;
+import com.finsecure.repository.LedgerJdbcRepository.StatementLine;
+import com.lowagie.text.Document;
+import com.lowagie.text.Font;
+import com.lowagie.text.FontFactory;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.pdf.PdfWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+// Each export holds a pooled connection with an open cursor for as long as the client takes to
+// download, so concurrent exports are capped below the connection pool size; callers that find
+// no free permit are turned away rather than queued.
+@Service
+@Slf4j
+public class StatementService {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int MAX_RANGE_DAYS = 3660;
+
+    private final AccountRepository accountRepository;
+    private final LedgerJdbcRepository ledgerRepository;
+    private final int fetchSize;
+    private final Semaphore exportPermits;
+    private final Counter rejectedCounter;
+
+    public StatementService(AccountRepository accountRepository,
+                            LedgerJdbcRepository ledgerRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.statement.fetch-size:500}") int fetchSize,
+                            @Value("${app.statement.max-concurrent-exports:4}") int maxConcurrentExports) {
+        this.accountRepository = accountRepository;
+        this.ledgerRepository = ledgerRepository;
+        this.fetchSize = fetchSize;
+        this.exportPermits = new Semaphore(maxConcurrentExports);
+        Gauge.builder("finsecure.statement.exports.active", exportPermits,
+                permits -> maxConcurrentExports - permits.availablePermits())
+            .register(meterRegistry);
+        this.rejectedCounter = meterRegistry.counter("finsecure.statement.exports.rejected");
+    }
+
+    // Released by the export when it finishes; closing twice is harmless
+    public final class ExportPermit implements AutoCloseable {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                exportPermits.release();
+            }
+        }
+    }
+
+    public ExportPermit acquireExport() {
+        if (!exportPermits.tryAcquire()) {
+            rejectedCounter.increment();
+            throw new IllegalStateException("Too many statement downloads in progress, please try again shortly");
+        }
+        return new ExportPermit();
+    }
+
+    public enum StatementFormat {
+        CSV, PDF;
+
+        public static StatementFormat parse(String value) {
+            for (StatementFormat format : values()) {
+                if (format.name().equalsIgnoreCase(value)) return format;
+            }
+            throw new IllegalArgumentException("Unsupported statement format: " + value);
+        }
+    }
+
+    public record StatementRequest(Long accountId, String accountNumber, String holderName,
+                                   String accountType, LocalDate from, LocalDate to) {}
+
+    // Resolve ownership and header details up front, so errors surface before the
+    // response is committed and no persistence context is held while streaming
+    @Transactional(readOnly = true)
+    public StatementRequest prepareStatement(Long accountId, LocalDate from, LocalDate to, String userEmail) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Statement start date must not be after end date");
+        }
+        if (to.minusDays(MAX_RANGE_DAYS).isAfter(from)) {
+            throw new IllegalArgumentException("Statement period cannot exceed 10 years");
+        }
+        Account account = accountRepository.findOwnedWithCustomer(accountId, userEmail)
+            .orElseThrow(() -> new IllegalArgumentException("Account not found"));
+
+        return new StatementRequest(
+            account.getId(),
+            account.getAccountNumber(),
+            account.getCustomer().getFirstName() + " " + account.getCustomer().getLastName(),
+            account.getAccountType().name(),
+            from, to);
+    }
+
+    public String fileName(StatementRequest request, StatementFormat format) {
+        return "statement-" + request.accountNumber() + "-" + request.from() + "-" + request.to()
+            + "." + format.name().toLowerCase();
+    }
+
+    public void writeStatement(StatementRequest request, StatementFormat format, OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        long rows = format == StatementFormat.PDF ? writePdf(request, out) : writeCsv(request, out);
+        log.info("Statement exported: account={}, format={}, rows={}, took={}ms",
+            request.accountNumber(), format, rows, System.currentTimeMillis() - started);
+    }
+
+    private long writeCsv(StatementRequest request, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        writer.write("Date,Reference,Type,Mode,Amount,Balance,Counterparty,Description\n");
+
+        long[] rows = {0};
+        try {
+            stream(request, line -> {
+                try {
+                    writer.write(line.createdAt().format(TIMESTAMP));
+                    writer.write(',');
+                    writer.write(line.referenceNumber());
+                    writer.write(',');
+                    writer.write(line.type().name());
+                    writer.write(',');
+                    writer.write(line.mode().name());
+                    writer.write(',');
+                    writer.write(line.amount().toPlainString());
+                    writer.write(',');
+                    writer.write(line.balanceAfter().toPlainString());
+                    writer.write(',');
+                    writer.write(csvField(line.targetAccountNumber()));
+                    writer.write(',');
+                    writer.write(csvField(line.description()));
+                    writer.write('\n');
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Client went away mid-download; abandoning the cursor releases the connection
+            throw e.getCause();
+        }
+        writer.flush();
+        return rows[0];
+    }
+
+    private long writePdf(StatementRequest request, OutputStream out) {
+        Document document = new Document(PageSize.A4.rotate(), 28, 28, 28, 28);
+        PdfWriter writer = PdfWriter.getInstance(document, out);
+        writer.setCloseStream(false);
+        writer.setFullCompression();
+        document.open();
+
+        Font title = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 14);
+        Font body = FontFactory.getFont(FontFactory.COURIER, 8);
+        document.add(new Paragraph("FinSecure Account Statement", title));
+        document.add(new Paragraph(String.format("Account: %s (%s)   Holder: %s   Period: %s to %s",
+            request.accountNumber(), request.accountType(), request.holderName(), request.from(), request.to()), body));
+        document.add(new Paragraph(" ", body));
+        document.add(new Paragraph(String.format("%-19s  %-22s  %-6s  %-6s  %15s  %15s  %-20s  %s",
+            "Date", "Reference", "Type", "Mode", "Amount", "Balance", "Counterparty", "Description"), body));
+
+        // Rows are added one paragraph at a time; OpenPDF writes each page out as it fills,
+        // so only the current page is buffered regardless of statement length
+        long[] rows = {0};
+        stream(request, line -> {
+            document.add(new Paragraph(String.format("%-19s  %-22s  %-6s  %-6s  %15s  %15s  %-20s  %s",
+                line.createdAt().format(TIMESTAMP),
+                line.referenceNumber(),
+                line.type().name(),
+                line.mode().name(),
+                line.amount().toPlainString(),
+                line.balanceAfter().toPlainString(),
+                line.targetAccountNumber() != null ? line.targetAccountNumber() : "",
+                line.description() != null ? line.description() : ""), body));
+            rows[0]++;
+        });
+
+        if (rows[0] == 0) {
+            document.add(new Paragraph("No transactions in this period.", body));
+        }
+        document.close();
+        return rows[0];
+    }
+
+    private void stream(StatementRequest request, Consumer<StatementLine> consumer) {
+        ledgerRepository.streamStatement(request.accountId(),
+            request.from().atStartOfDay(), request.to().plusDays(1).atStartOfDay(),
+            fetchSize, consumer);
+    }
+
+    private static String csvField(String value) {
+        if (value == null || value.isEmpty()) return "";
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+            || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        // Neutralise spreadsheet formula injection from user-supplied descriptions
+        if ("=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        return quote ? "\"" + value.replace("\"", "\"\"") + "\"" : value;
+    }
+}
@@ -0,0 +1,85 @@
+package com.finsecure.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Hierarchical timer wheel: three levels of 64 slots covering 64, 4096 and 262144 ticks. An
+// item is filed at the coarsest level its delay needs and cascades down as its slot comes
+// round, so scheduling and expiry are O(1) per item regardless of how many are pending.
+// Deadlines past the top level are parked in its furthest slot and re-filed when it cascades.
+// Not thread-safe; callers serialize access.
+final class TimerWheel<T> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 3;
+
+    private record Timer<T>(T item, long deadline) {}
+
+    private final List<List<Timer<T>>> slots = new ArrayList<>(LEVELS * SLOTS);
+    private long currentTick;
+    private int size;
+
+    TimerWheel(long startTick) {
+        this.currentTick = startTick;
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    void schedule(T item, long deadlineTick, Consumer<T> expired) {
+        file(new Timer<>(item, deadlineTick), expired);
+    }
+
+    // Moves the wheel forward to nowTick, handing every item whose deadline has passed to expired
+    void advance(long nowTick, Consumer<T> expired) {
+        while (currentTick < nowTick) {
+            currentTick++;
+            // Cascade coarser levels at their boundaries before firing this tick's slot
+            for (int level = 1; level < LEVELS; level++) {
+                if ((currentTick & ((1L << (BITS * level)) - 1)) != 0) break;
+                List<Timer<T>> bucket = slot(level, currentTick >>> (BITS * level));
+                if (bucket.isEmpty()) continue;
+                List<Timer<T>> cascading = new ArrayList<>(bucket);
+                bucket.clear();
+                size -= cascading.size();
+                cascading.forEach(timer -> file(timer, expired));
+            }
+            List<Timer<T>> due = slot(0, currentTick);
+            if (!due.isEmpty()) {
+                List<Timer<T>> firing = new ArrayList<>(due);
+                due.clear();
+                size -= firing.size();
+                firing.forEach(timer -> expired.accept(timer.item()));
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void file(Timer<T> timer, Consumer<T> expired) {
+        long delay = timer.deadline() - currentTick;
+        if (delay <= 0) {
+            expired.accept(timer.item());
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            if (delay < 1L << (BITS * (level + 1))) {
+                slot(level, timer.deadline() >>> (BITS * level)).add(timer);
+                size++;
+                return;
+            }
+        }
+        int top = LEVELS - 1;
+        slot(top, (currentTick >>> (BITS * top)) - 1).add(timer);
+        size++;
+    }
+
+    private List<Timer<T>> slot(int level, long index) {
+        return slots.get(level * SLOTS + (int) (index & MASK));
+    }
+}
@@ -0,0 +1,135 @@
+package com.finsecure.service;
+
+import com.finsecure.entity.Notification.NotificationType;
+import com.finsecure.entity.OutboxEvent.OutboxStatus;
+import com.finsecure.repository.NotificationJdbcRepository.NewNotification;
+import com.finsecure.repository.OutboxEventRepository;
+import com.finsecure.service.OutboxService.Digest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Coalesces routine transaction alerts per recipient. The first alert in a window is deferred
+// by window-seconds; everything queued for the same recipient until then goes out as one
+// summary notification and one digest email. A group that reaches max-count is sent at once,
+// and transfers of immediate-amount or more always alert individually and immediately.
+@Component
+public class TransactionAlertDigest {
+
+    static final String ACCOUNT = "alert.account";
+    static final String AMOUNT = "alert.amount";
+    static final String DIRECTION = "alert.direction";
+    static final String BALANCE = "alert.balance";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final MailTemplates mailTemplates;
+    private final boolean enabled;
+    private final Duration window;
+    private final int maxCount;
+    private final BigDecimal immediateAmount;
+
+    public TransactionAlertDigest(OutboxEventRepository outboxEventRepository,
+                                  MailTemplates mailTemplates,
+                                  @Value("${app.alerts.digest.enabled:true}") boolean enabled,
+                                  @Value("${app.alerts.digest.window-seconds:600}") long windowSeconds,
+                                  @Value("${app.alerts.digest.max-count:20}") int maxCount,
+                                  @Value("${app.alerts.digest.immediate-amount:50000}") BigDecimal immediateAmount) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.mailTemplates = mailTemplates;
+        this.enabled = enabled;
+        this.window = Duration.ofSeconds(windowSeconds);
+        this.maxCount = maxCount;
+        this.immediateAmount = immediateAmount;
+    }
+
+    // Returns null when the alert must go out on its own right away
+    public Digest notificationDigest(Long userId, String accountNumber, String amount, String direction) {
+        return digest("txn-notification:" + userId, accountNumber, amount, direction, null);
+    }
+
+    public Digest emailDigest(String email, String accountNumber, String amount, String direction, String balance) {
+        return digest("txn-email:" + email.toLowerCase(), accountNumber, amount, direction, balance);
+    }
+
+    private Digest digest(String groupKey, String accountNumber, String amount, String direction, String balance) {
+        if (!enabled || new BigDecimal(amount).compareTo(immediateAmount) >= 0) {
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        long queued = outboxEventRepository.countByGroupKeyAndStatus(groupKey, OutboxStatus.PENDING);
+        LocalDateTime deliverAt = queued + 1 >= maxCount ? now : now.plus(window);
+        Map<String, String> fields = new HashMap<>();
+        fields.put(ACCOUNT, accountNumber);
+        fields.put(AMOUNT, amount);
+        fields.put(DIRECTION, direction);
+        fields.put(BALANCE, balance);
+        return new Digest(groupKey, deliverAt, fields);
+    }
+
+    NewNotification renderNotification(List<Map<String, String>> alerts) {
+        Totals totals = totals(alerts);
+        return new NewNotification(
+            Long.valueOf(alerts.get(0).get("userId")),
+            NotificationType.TRANSACTION,
+            "Transaction Summary",
+            String.format("%d transactions on account%s %s: Rs. %s debited, Rs. %s credited",
+                alerts.size(), totals.accounts.size() > 1 ? "s" : "", String.join(", ", totals.accounts),
+                totals.debited.toPlainString(), totals.credited.toPlainString()),
+            totals.accounts.size() == 1 ? totals.accounts.iterator().next() : null,
+            totals.accounts.size() == 1 ? "ACCOUNT" : null);
+    }
+
+    // Returns the to/subject/body/html entries the single-alert payload uses
+    Map<String, String> renderEmail(List<Map<String, String>> alerts) {
+        Totals totals = totals(alerts);
+        StringBuilder lines = new StringBuilder();
+        String balance = "";
+        for (Map<String, String> alert : alerts) {
+            lines.append("  - ").append(alert.get(DIRECTION))
+                .append(" of Rs. ").append(alert.get(AMOUNT))
+                .append(" on account ").append(alert.get(ACCOUNT)).append('\n');
+            if (alert.get(BALANCE) != null) {
+                balance = alert.get(BALANCE);
+            }
+        }
+        MailTemplates.RenderedMail mail = mailTemplates.render("transaction-digest", Map.of(
+            "count", String.valueOf(alerts.size()),
+            "accounts", totals.accounts.size() > 1 ? "accounts" : "account",
+            "lines", lines.toString(),
+            "debited", totals.debited.toPlainString(),
+            "credited", totals.credited.toPlainString(),
+            "balance", balance));
+        Map<String, String> email = new HashMap<>();
+        email.put("to", alerts.get(0).get("to"));
+        email.put("subject", mail.subject());
+        email.put("body", mail.text());
+        email.put("html", mail.html());
+        return email;
+    }
+
+    private record Totals(Set<String> accounts, BigDecimal debited, BigDecimal credited) {}
+
+    private Totals totals(List<Map<String, String>> alerts) {
+        Set<String> accounts = new LinkedHashSet<>();
+        BigDecimal debited = BigDecimal.ZERO;
+        BigDecimal credited = BigDecimal.ZERO;
+        for (Map<String, String> alert : alerts) {
+            accounts.add(alert.get(ACCOUNT));
+            BigDecimal amount = new BigDecimal(alert.get(AMOUNT));
+            if (alert.get(DIRECTION).contains("credit")) {
+                credited = credited.add(amount);
+            } else {
+                debited = debited.add(amount);
+            }
+        }
+        return new Totals(accounts, debited, credited);
+    }
+}
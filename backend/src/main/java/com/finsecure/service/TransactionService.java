@@ -1,23 +1,36 @@
 package com.finsecure.service;
 
+import com.finsecure.dto.CursorPage;
 import com.finsecure.dto.TransactionRequest;
 import com.finsecure.dto.TransactionResponse;
 import com.finsecure.entity.*;
 import com.finsecure.entity.Otp.OtpPurpose;
 import com.finsecure.entity.Transaction.TransactionType;
 import com.finsecure.repository.AccountRepository;
-import com.finsecure.repository.OtpRepository;
 import com.finsecure.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -26,17 +39,78 @@ public class TransactionService {
 
     private final TransactionRepository transactionRepository;
     private final AccountRepository accountRepository;
-    private final OtpRepository otpRepository;
+    private final OtpStore otpStore;
     private final NotificationService notificationService;
     private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    private final IdGenerator idGenerator;
+    private final MeterRegistry meterRegistry;
+    private final DashboardCache dashboardCache;
+    private final VelocityLimiter velocityLimiter;
 
-    private static final BigDecimal OTP_THRESHOLD = BigDecimal.valueOf(10000);
+    static final BigDecimal OTP_THRESHOLD = BigDecimal.valueOf(10000);
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int CURSOR_BYTES = 20;
+    private static final Comparator<Transaction> HISTORY_ORDER =
+        Comparator.comparing(Transaction::getCreatedAt).thenComparing(Transaction::getId).reversed();
+
+    @Value("${app.transfer.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${app.transfer.retry-backoff-ms:20}")
+    private long retryBackoffMs;
 
-    @Transactional
     public TransactionResponse processTransfer(TransactionRequest request, String userEmail) {
-        Account fromAccount = accountRepository.findByAccountNumber(request.getFromAccountNumber())
+        return executeWithRetry(request.getFromAccountNumber(), () -> executeTransfer(request, userEmail));
+    }
+
+    // Runs a money-moving unit of work in its own transaction, retrying it from scratch when it
+    // loses a deadlock or lock wait against another transfer
+    <T> T executeWithRetry(String fromAccountNumber, Supplier<T> work) {
+        int attempt = 0;
+        while (true) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (ConcurrencyFailureException e) {
+                meterRegistry.counter("finsecure.transfer.contention").increment();
+                if (++attempt > maxRetries) {
+                    meterRegistry.counter("finsecure.transfer.retries.exhausted").increment();
+                    log.warn("Transfer from {} abandoned after {} attempts: {}",
+                        fromAccountNumber, attempt, e.getMessage());
+                    throw new IllegalStateException("Transfer could not be completed, please try again");
+                }
+                meterRegistry.counter("finsecure.transfer.retries").increment();
+                log.debug("Lock conflict on transfer from {}, retry {}/{}",
+                    fromAccountNumber, attempt, maxRetries);
+                backoff(attempt);
+            }
+        }
+    }
+
+    private TransactionResponse executeTransfer(TransactionRequest request, String userEmail) {
+        Long fromId = accountRepository.findIdByAccountNumber(request.getFromAccountNumber())
             .orElseThrow(() -> new IllegalArgumentException("Source account not found"));
 
+        Long toId = null;
+        if (request.getToAccountNumber() != null && !request.getToAccountNumber().isEmpty()) {
+            toId = accountRepository.findIdByAccountNumber(request.getToAccountNumber()).orElse(null);
+        }
+
+        // Lock both rows in ascending id order so opposing transfers cannot deadlock
+        Account fromAccount;
+        Account toAccount = null;
+        if (toId == null || toId.equals(fromId)) {
+            fromAccount = lockAccount(fromId);
+            toAccount = toId != null ? fromAccount : null;
+        } else if (fromId < toId) {
+            fromAccount = lockAccount(fromId);
+            toAccount = lockAccount(toId);
+        } else {
+            toAccount = lockAccount(toId);
+            fromAccount = lockAccount(fromId);
+        }
+
         if (!fromAccount.getCustomer().getUser().getEmail().equals(userEmail)) {
             throw new SecurityException("Unauthorized: Account does not belong to this user");
         }
@@ -49,6 +123,8 @@ public class TransactionService {
             throw new IllegalStateException("Insufficient balance");
         }
 
+        velocityLimiter.checkAccount(fromAccount.getId(), fromAccount.getAccountType(), request.getMode(), request.getAmount());
+
         // OTP verification for large amounts
         if (request.getAmount().compareTo(OTP_THRESHOLD) > 0) {
             validateOtp(fromAccount.getCustomer().getUser().getEmail(), request.getOtpCode());
@@ -73,34 +149,32 @@ public class TransactionService {
         transactionRepository.save(debitTxn);
 
         // Credit to destination if internal transfer
-        if (request.getToAccountNumber() != null && !request.getToAccountNumber().isEmpty()) {
-            accountRepository.findByAccountNumber(request.getToAccountNumber()).ifPresent(toAccount -> {
-                if (toAccount.getStatus() == Account.AccountStatus.ACTIVE) {
-                    toAccount.setBalance(toAccount.getBalance().add(request.getAmount()));
-                    accountRepository.save(toAccount);
-
-                    Transaction creditTxn = Transaction.builder()
-                        .referenceNumber(generateReferenceNumber())
-                        .account(toAccount)
-                        .type(TransactionType.CREDIT)
-                        .mode(request.getMode())
-                        .amount(request.getAmount())
-                        .balanceAfter(toAccount.getBalance())
-                        .description("Transfer from " + request.getFromAccountNumber())
-                        .targetAccountNumber(request.getFromAccountNumber())
-                        .status(Transaction.TransactionStatus.SUCCESS)
-                        .build();
-
-                    transactionRepository.save(creditTxn);
-
-                    Long recipientUserId = toAccount.getCustomer().getUser().getId();
-                    notificationService.sendTransactionNotification(recipientUserId,
-                        toAccount.getAccountNumber(), request.getAmount().toString(), "credit");
-                }
-            });
+        if (toAccount != null && toAccount.getStatus() == Account.AccountStatus.ACTIVE) {
+            toAccount.setBalance(toAccount.getBalance().add(request.getAmount()));
+            accountRepository.save(toAccount);
+
+            Transaction creditTxn = Transaction.builder()
+                .referenceNumber(generateReferenceNumber())
+                .account(toAccount)
+                .type(TransactionType.CREDIT)
+                .mode(request.getMode())
+                .amount(request.getAmount())
+                .balanceAfter(toAccount.getBalance())
+                .description("Transfer from " + request.getFromAccountNumber())
+                .targetAccountNumber(request.getFromAccountNumber())
+                .status(Transaction.TransactionStatus.SUCCESS)
+                .build();
+
+            transactionRepository.save(creditTxn);
+
+            Long recipientUserId = toAccount.getCustomer().getUser().getId();
+            dashboardCache.evict(recipientUserId);
+            notificationService.sendTransactionNotification(recipientUserId,
+                toAccount.getAccountNumber(), request.getAmount().toString(), "credit");
         }
 
         Long senderUserId = fromAccount.getCustomer().getUser().getId();
+        dashboardCache.evict(senderUserId);
         notificationService.sendTransactionNotification(senderUserId,
             fromAccount.getAccountNumber(), request.getAmount().toString(), "debit");
 
@@ -117,11 +191,13 @@ public class TransactionService {
 
     @Transactional
     public TransactionResponse processDeposit(String accountNumber, BigDecimal amount, String description) {
-        Account account = accountRepository.findByAccountNumber(accountNumber)
+        Long accountId = accountRepository.findIdByAccountNumber(accountNumber)
             .orElseThrow(() -> new IllegalArgumentException("Account not found"));
+        Account account = lockAccount(accountId);
 
         account.setBalance(account.getBalance().add(amount));
         accountRepository.save(account);
+        dashboardCache.evict(account.getCustomer().getUser().getId());
 
         Transaction txn = Transaction.builder()
             .referenceNumber(generateReferenceNumber())
@@ -142,26 +218,109 @@ public class TransactionService {
         return transactionRepository.findByAccountId(accountId, pageable).map(this::mapToResponse);
     }
 
-    private void validateOtp(String email, String otpCode) {
-        if (otpCode == null || otpCode.isBlank()) {
-            throw new IllegalArgumentException("OTP is required for transactions above Rs.10,000");
+    @Transactional(readOnly = true)
+    public CursorPage<TransactionResponse> getTransactionHistory(Long accountId, String cursor, int size, String userEmail) {
+        if (!accountRepository.existsByIdAndCustomerUserEmail(accountId, userEmail)) {
+            throw new IllegalArgumentException("Account not found");
+        }
+        int limit = clampPageSize(size);
+        return toCursorPage(fetchPage(accountId, decodeCursor(cursor), limit + 1), limit);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<TransactionResponse> getCustomerTransactionHistory(String userEmail, String cursor, int size) {
+        int limit = clampPageSize(size);
+        HistoryCursor after = decodeCursor(cursor);
+
+        // Each account is read from its own index range and merged, so a page costs O(accounts x page size)
+        List<Transaction> rows = new ArrayList<>();
+        for (Long accountId : accountRepository.findIdsByUserEmail(userEmail)) {
+            rows.addAll(fetchPage(accountId, after, limit + 1));
+        }
+        rows.sort(HISTORY_ORDER);
+        return toCursorPage(rows, limit);
+    }
+
+    private List<Transaction> fetchPage(Long accountId, HistoryCursor after, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        return after == null
+            ? transactionRepository.findLatestByAccountId(accountId, page)
+            : transactionRepository.findByAccountIdBefore(accountId, after.createdAt(), after.id(), page);
+    }
+
+    private CursorPage<TransactionResponse> toCursorPage(List<Transaction> rows, int limit) {
+        boolean hasMore = rows.size() > limit;
+        List<Transaction> page = hasMore ? rows.subList(0, limit) : rows;
+        return CursorPage.<TransactionResponse>builder()
+            .items(page.stream().map(this::mapToResponse).collect(Collectors.toList()))
+            .nextCursor(hasMore ? encodeCursor(page.get(page.size() - 1)) : null)
+            .hasMore(hasMore)
+            .build();
+    }
+
+    private int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    // Opaque continuation token: createdAt (epoch seconds + nanos) and id of the last row served
+    private static String encodeCursor(Transaction txn) {
+        ByteBuffer buffer = ByteBuffer.allocate(CURSOR_BYTES)
+            .putLong(txn.getCreatedAt().toEpochSecond(ZoneOffset.UTC))
+            .putInt(txn.getCreatedAt().getNano())
+            .putLong(txn.getId());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    private static HistoryCursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
         }
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+            if (bytes.length != CURSOR_BYTES) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            LocalDateTime createdAt = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+            return new HistoryCursor(createdAt, buffer.getLong());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
 
-        Otp otp = otpRepository.findValidOtp(email, OtpPurpose.TRANSACTION, LocalDateTime.now())
-            .orElseThrow(() -> new IllegalArgumentException("Invalid or expired OTP"));
+    private record HistoryCursor(LocalDateTime createdAt, Long id) {}
+
+    private Account lockAccount(Long accountId) {
+        return accountRepository.findByIdForUpdate(accountId)
+            .orElseThrow(() -> new IllegalArgumentException("Account not found"));
+    }
 
-        if (!otp.getOtpCode().equals(otpCode)) {
-            otp.setAttemptCount(otp.getAttemptCount() + 1);
-            otpRepository.save(otp);
-            throw new IllegalArgumentException("Incorrect OTP");
+    private void backoff(int attempt) {
+        long delay = retryBackoffMs * attempt + ThreadLocalRandom.current().nextLong(retryBackoffMs + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Transfer interrupted");
+        }
+    }
+
+    void validateOtp(String email, String otpCode) {
+        if (otpCode == null || otpCode.isBlank()) {
+            throw new IllegalArgumentException("OTP is required for transactions above Rs.10,000");
         }
 
-        otp.setUsed(true);
-        otpRepository.save(otp);
+        // Runs inside the transfer transaction, so a rolled-back transfer leaves the OTP usable;
+        // a wrong code is counted in its own transaction and survives the rollback
+        switch (otpStore.verify(email, OtpPurpose.TRANSACTION, otpCode)) {
+            case INVALID -> throw new IllegalArgumentException("Invalid or expired OTP");
+            case MISMATCH -> throw new IllegalArgumentException("Incorrect OTP");
+            default -> { }
+        }
     }
 
-    private String generateReferenceNumber() {
-        return "TXN" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 6).toUpperCase();
+    String generateReferenceNumber() {
+        return idGenerator.nextReferenceNumber();
     }
 
     private TransactionResponse mapToResponse(Transaction txn) {
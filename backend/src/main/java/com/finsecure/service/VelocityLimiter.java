@@ -0,0 +1,151 @@
+package com.finsecure.service;
+
+import com.finsecure.config.VelocityLimitProperties;
+import com.finsecure.config.VelocityLimitProperties.Channel;
+import com.finsecure.config.VelocityLimitProperties.Limit;
+import com.finsecure.entity.Account.AccountType;
+import com.finsecure.entity.Card.CardType;
+import com.finsecure.entity.CardAuthorization;
+import com.finsecure.entity.Transaction.TransactionMode;
+import com.finsecure.repository.CardAuthorizationJdbcRepository;
+import com.finsecure.repository.LedgerJdbcRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Rolling hourly and daily spend limits per account and per card, by channel. Totals live in
+// SpendWindow buckets so a check never sums the transactions table; the last 24 hours are
+// replayed from the database at startup. Like CardLimitLedger, this assumes one node owns
+// the spend of a given account or card.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VelocityLimiter {
+
+    private final VelocityLimitProperties properties;
+    private final LedgerJdbcRepository ledgerRepository;
+    private final CardAuthorizationJdbcRepository cardAuthorizationRepository;
+    private final MeterRegistry meterRegistry;
+
+    private enum Scope { ACCOUNT, CARD }
+
+    private record Key(Scope scope, long ownerId, Channel channel) {}
+
+    private final Map<Key, SpendWindow> windows = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void rebuild() {
+        Gauge.builder("finsecure.velocity.windows", windows, Map::size).register(meterRegistry);
+        if (!properties.isEnabled()) return;
+
+        long now = System.currentTimeMillis();
+        LocalDateTime since = LocalDateTime.now().minusHours(24);
+        ledgerRepository.streamDebitsSince(since, properties.getRebuildFetchSize(), row -> {
+            Channel channel = Channel.of(row.mode());
+            if (properties.limitFor(row.accountType(), channel) != null) {
+                record(new Key(Scope.ACCOUNT, row.accountId(), channel), toMinor(row.amount()), epochMillis(row.createdAt()), now);
+            }
+        });
+        cardAuthorizationRepository.streamSpendSince(since, properties.getRebuildFetchSize(), row -> {
+            Channel channel = Channel.of(row.channel());
+            if (properties.limitFor(row.cardType(), channel) != null) {
+                record(new Key(Scope.CARD, row.cardId(), channel), toMinor(row.amount()), epochMillis(row.createdAt()), now);
+            }
+        });
+        log.info("Rebuilt {} velocity windows from the last 24 hours", windows.size());
+    }
+
+    // Transfer path: must run inside the transaction that moves the money. The spend is counted
+    // immediately, so concurrent transfers see each other, and handed back if that transaction rolls back.
+    public void checkAccount(Long accountId, AccountType accountType, TransactionMode mode, BigDecimal amount) {
+        Channel channel = Channel.of(mode);
+        Limit limit = properties.isEnabled() ? properties.limitFor(accountType, channel) : null;
+        if (limit == null) return;
+
+        Key key = new Key(Scope.ACCOUNT, accountId, channel);
+        long minor = toMinor(amount);
+        long now = System.currentTimeMillis();
+        if (!tryAdd(key, minor, limit, now)) {
+            meterRegistry.counter("finsecure.velocity.exceeded", "scope", "account", "channel", channel.name()).increment();
+            throw new IllegalStateException(channel.name() + " spend limit reached for this account, please try again later");
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        release(key, minor, now);
+                    }
+                }
+            });
+        }
+    }
+
+    // Card path: the caller releases the spend itself on decline, reversal or partial capture
+    public boolean tryReserveCard(Long cardId, CardType cardType, CardAuthorization.Channel cardChannel, long amount, long at) {
+        Channel channel = Channel.of(cardChannel);
+        Limit limit = properties.isEnabled() ? properties.limitFor(cardType, channel) : null;
+        if (limit == null) return true;
+
+        if (!tryAdd(new Key(Scope.CARD, cardId, channel), amount, limit, at)) {
+            meterRegistry.counter("finsecure.velocity.exceeded", "scope", "card", "channel", channel.name()).increment();
+            return false;
+        }
+        return true;
+    }
+
+    public void releaseCard(Long cardId, CardAuthorization.Channel cardChannel, long amount, long at) {
+        release(new Key(Scope.CARD, cardId, Channel.of(cardChannel)), amount, at);
+    }
+
+    // Windows with nothing left in the last 24 hours are dropped; compute keeps this atomic with tryAdd
+    @Scheduled(fixedDelayString = "${app.velocity.sweep-interval-ms:900000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        for (Key key : windows.keySet()) {
+            windows.computeIfPresent(key, (k, window) -> window.isIdle(now) ? null : window);
+        }
+    }
+
+    private boolean tryAdd(Key key, long amount, Limit limit, long now) {
+        boolean[] accepted = new boolean[1];
+        windows.compute(key, (k, window) -> {
+            SpendWindow target = window != null ? window : new SpendWindow();
+            accepted[0] = target.tryAdd(amount, toMinor(limit.getHourly()), toMinor(limit.getDaily()), now);
+            return target;
+        });
+        return accepted[0];
+    }
+
+    private void record(Key key, long amount, long at, long now) {
+        windows.computeIfAbsent(key, k -> new SpendWindow()).record(amount, at, now);
+    }
+
+    private void release(Key key, long amount, long at) {
+        SpendWindow window = windows.get(key);
+        if (window != null) {
+            window.remove(amount, at, System.currentTimeMillis());
+        }
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static long toMinor(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).setScale(0, RoundingMode.CEILING).longValueExact();
+    }
+}
@@ -0,0 +1,170 @@
+package com.finsecure.service;
+
+import com.finsecure.dto.CardAuthorizationRequest;
+import com.finsecure.dto.CardAuthorizationResponse;
+import com.finsecure.entity.*;
+import com.finsecure.entity.CardAuthorization.AuthorizationStatus;
+import com.finsecure.entity.CardAuthorization.Channel;
+import com.finsecure.repository.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Load harness for CardAuthorizationService: many threads authorizing against a pool of
+// resident credit cards for a fixed time, with write-behind persistence running. Prints
+// throughput and latency percentiles. Skipped in normal builds; run with
+//   mvn test -Dtest=CardAuthorizationLoadHarness -Dloadtest=true [-Dloadtest.seconds=20 -Dloadtest.threads=16]
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class CardAuthorizationLoadHarness {
+
+    private static final int CARDS = 2000;
+    private static final String CVV = "123";
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @Autowired private CardAuthorizationService authorizationService;
+    @Autowired private CardVault cardVault;
+    @Autowired private UserRepository userRepository;
+    @Autowired private CustomerRepository customerRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private CardRepository cardRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    @Test
+    void authorizeUnderLoad() throws Exception {
+        int seconds = Integer.getInteger("loadtest.seconds", 10);
+        int threads = Integer.getInteger("loadtest.threads", Runtime.getRuntime().availableProcessors() * 2);
+        List<String> pans = seedCards();
+
+        // Warm-up loads every card into the ledger and lets the JIT settle
+        run(pans, threads, 2);
+        Result result = run(pans, threads, seconds);
+
+        long[] latencies = result.latencies();
+        Arrays.sort(latencies);
+        System.out.printf("%nCard authorization load: %d threads, %d s, %d cards%n", threads, seconds, CARDS);
+        System.out.printf("  throughput  %,.0f authorizations/s (%,d approved, %,d declined)%n",
+            result.total() / (double) seconds, result.approved(), result.total() - result.approved());
+        System.out.printf("  latency     p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us%n%n",
+            percentile(latencies, 0.50), percentile(latencies, 0.99),
+            percentile(latencies, 0.999), latencies[latencies.length - 1] / 1000.0);
+
+        assertThat(result.errors()).isZero();
+        assertThat(result.approved()).isPositive();
+    }
+
+    private record Result(long total, long approved, long errors, long[] latencies) {}
+
+    private Result run(List<String> pans, int threads, int seconds) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        LongAdder approved = new LongAdder();
+        LongAdder errors = new LongAdder();
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            futures.add(executor.submit(() -> {
+                // Keeps one latency sample per call, up to a cap, to compute percentiles afterwards
+                long[] samples = new long[1 << 20];
+                int count = 0;
+                int i = offset;
+                while (System.nanoTime() < deadline) {
+                    CardAuthorizationRequest request = CardAuthorizationRequest.builder()
+                        .cardNumber(pans.get(i++ % pans.size()))
+                        .cvv(CVV)
+                        .amount(AMOUNT)
+                        .channel(Channel.POS)
+                        .merchantName("Load harness")
+                        .build();
+                    long started = System.nanoTime();
+                    try {
+                        CardAuthorizationResponse response = authorizationService.authorize(request);
+                        if (response.getStatus() == AuthorizationStatus.APPROVED) approved.increment();
+                    } catch (RuntimeException e) {
+                        errors.increment();
+                    }
+                    if (count < samples.length) samples[count++] = System.nanoTime() - started;
+                }
+                return Arrays.copyOf(samples, count);
+            }));
+        }
+        long total = 0;
+        List<long[]> perThread = new ArrayList<>();
+        for (Future<long[]> future : futures) {
+            long[] samples = future.get();
+            perThread.add(samples);
+            total += samples.length;
+        }
+        executor.shutdown();
+        long[] all = new long[(int) total];
+        int pos = 0;
+        for (long[] samples : perThread) {
+            System.arraycopy(samples, 0, all, pos, samples.length);
+            pos += samples.length;
+        }
+        return new Result(total, approved.sum(), errors.sum(), all);
+    }
+
+    private List<String> seedCards() {
+        List<String> pans = new ArrayList<>(CARDS);
+        String cvvHash = cardVault.protectCvv(CVV);
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = userRepository.save(User.builder()
+                .email("load-harness@example.com")
+                .username("loadharness")
+                .password("x")
+                .role(User.Role.ROLE_CUSTOMER)
+                .build());
+            Customer customer = customerRepository.save(Customer.builder()
+                .user(user)
+                .firstName("Load")
+                .lastName("Harness")
+                .phone("9000000002")
+                .dateOfBirth(LocalDate.of(1990, 1, 1))
+                .build());
+            Account account = accountRepository.save(Account.builder()
+                .accountNumber("FINSLOADHARNESS01")
+                .customer(customer)
+                .accountType(Account.AccountType.SAVINGS)
+                .ifscCode("FINS0000001")
+                .branchName("Load")
+                .build());
+            List<Card> cards = new ArrayList<>(CARDS);
+            for (int i = 0; i < CARDS; i++) {
+                String pan = cardVault.generatePan("4", 16);
+                pans.add(pan);
+                cards.add(Card.builder()
+                    .account(account)
+                    .cardType(Card.CardType.CREDIT)
+                    .maskedCardNumber("**** " + pan.substring(12))
+                    .cardNumberHash(cardVault.panIndex(pan))
+                    .cardHolderName("LOAD HARNESS")
+                    .expiryDate(LocalDate.now().plusYears(3))
+                    .cvvHash(cvvHash)
+                    .creditLimit(BigDecimal.valueOf(10_000_000))
+                    .availableLimit(BigDecimal.valueOf(10_000_000))
+                    .build());
+            }
+            cardRepository.saveAll(cards);
+        });
+        return pans;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))] / 1000.0;
+    }
+}
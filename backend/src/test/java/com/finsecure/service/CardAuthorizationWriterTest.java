@@ -0,0 +1,115 @@
+package com.finsecure.service;
+
+import com.finsecure.entity.*;
+import com.finsecure.entity.CardAuthorization.AuthorizationStatus;
+import com.finsecure.entity.CardAuthorization.Channel;
+import com.finsecure.repository.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// An event the database will never accept must not stall the write-behind queue: after
+// max-batch-failures the batch is split, the bad event dead-lettered and the rest persisted.
+@SpringBootTest(properties = {
+    "app.card.ledger.max-batch-failures=1",
+    "app.card.ledger.dead-letter-file=target/test-card-ledger-dead-letters.log"})
+@ActiveProfiles("test")
+class CardAuthorizationWriterTest {
+
+    @Autowired private CardAuthorizationWriter writer;
+    @Autowired private CardAuthorizationRepository authorizationRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private CustomerRepository customerRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private CardRepository cardRepository;
+    @Autowired private IdGenerator idGenerator;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    @Test
+    void badEventIsDeadLetteredAndTheRestOfTheBatchPersists() throws Exception {
+        Long cardId = seedCard();
+        Long missingCardId = cardId + 1_000_000;
+        Long badId = idGenerator.nextId();
+        Long goodId = idGenerator.nextId();
+        double deadLettered = meterRegistry.counter("finsecure.card.ledger.dead_lettered").count();
+
+        assertThat(writer.admit()).isTrue();
+        assertThat(writer.admit()).isTrue();
+        writer.recordAuthorization(authorization(badId, missingCardId));
+        writer.recordAuthorization(authorization(goodId, cardId));
+
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (!authorizationRepository.existsById(goodId) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+
+        assertThat(authorizationRepository.existsById(goodId)).isTrue();
+        assertThat(authorizationRepository.existsById(badId)).isFalse();
+        assertThat(meterRegistry.counter("finsecure.card.ledger.dead_lettered").count()).isEqualTo(deadLettered + 1);
+        assertThat(Files.readString(Path.of("target/test-card-ledger-dead-letters.log"))).contains("id=" + badId);
+    }
+
+    private static CardAuthorization authorization(Long id, Long cardId) {
+        LocalDateTime now = LocalDateTime.now();
+        return CardAuthorization.builder()
+            .id(id)
+            .card(Card.builder().id(cardId).build())
+            .amount(BigDecimal.TEN)
+            .channel(Channel.POS)
+            .international(false)
+            .status(AuthorizationStatus.DECLINED)
+            .declineReason("TEST")
+            .createdAt(now)
+            .updatedAt(now)
+            .build();
+    }
+
+    private Long seedCard() {
+        String run = Long.toString(System.nanoTime(), 36);
+        return transactionTemplate.execute(status -> {
+            User user = userRepository.save(User.builder()
+                .email("writer-" + run + "@example.com")
+                .username("writer" + run)
+                .password("x")
+                .role(User.Role.ROLE_CUSTOMER)
+                .build());
+            Customer customer = customerRepository.save(Customer.builder()
+                .user(user)
+                .firstName("Writer")
+                .lastName("Test")
+                .phone("9000000003")
+                .dateOfBirth(LocalDate.of(1990, 1, 1))
+                .build());
+            Account account = accountRepository.save(Account.builder()
+                .accountNumber(("FINSW" + run).substring(0, Math.min(20, ("FINSW" + run).length())))
+                .customer(customer)
+                .accountType(Account.AccountType.SAVINGS)
+                .ifscCode("FINS0000001")
+                .branchName("Test")
+                .build());
+            return cardRepository.save(Card.builder()
+                .account(account)
+                .cardType(Card.CardType.CREDIT)
+                .maskedCardNumber("**** 0000")
+                .cardNumberHash("writer-test-" + run)
+                .cardHolderName("WRITER TEST")
+                .expiryDate(LocalDate.now().plusYears(3))
+                .cvvHash("x")
+                .creditLimit(BigDecimal.valueOf(100_000))
+                .availableLimit(BigDecimal.valueOf(100_000))
+                .build()).getId();
+        });
+    }
+}
@@ -0,0 +1,178 @@
+package com.finsecure.service;
+
+import com.finsecure.dto.KycVerificationRequest;
+import com.finsecure.entity.*;
+import com.finsecure.repository.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Guards the reviewer lookup in EmployeeService: a KYC or loan decision must cost a fixed number
+// of statements however many employees exist, and a repeat decision by the same reviewer must
+// not look the employee up again. Each test measures with a small staff, then adds a large one
+// and measures again with one of the new reviewers.
+@SpringBootTest
+@ActiveProfiles("test")
+class EmployeeReviewQueryCountTest {
+
+    private static final int SMALL_HEADCOUNT = 5;
+    private static final int LARGE_HEADCOUNT = 200;
+
+    // Statements for one decision with the reviewer cached: load the row, load customer and user
+    // for the side effects, queue the notification and the email, update the row
+    private static final long KYC_DECISION_BUDGET = 6;
+    private static final long LOAN_DECISION_BUDGET = 6;
+
+    @Autowired private EmployeeService employeeService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private EmployeeRepository employeeRepository;
+    @Autowired private CustomerRepository customerRepository;
+    @Autowired private KycDocumentRepository kycDocumentRepository;
+    @Autowired private LoanRepository loanRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    private record Fixture(List<String> employeeEmails, List<Long> documentIds, List<Long> loanIds) {}
+
+    // Statements for a reviewer's first decision, their second, and another reviewer's first
+    private record Costs(long first, long cached, long otherReviewer) {}
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void kycDecisionCostDoesNotDependOnHeadcount() {
+        Costs small = kycCosts(seed(SMALL_HEADCOUNT));
+        Costs large = kycCosts(seed(LARGE_HEADCOUNT));
+
+        assertThat(small.cached()).isLessThanOrEqualTo(KYC_DECISION_BUDGET);
+        // A cold lookup adds exactly one indexed query
+        assertThat(small.first()).isEqualTo(small.cached() + 1);
+        assertThat(small.otherReviewer()).isEqualTo(small.first());
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void loanDecisionCostDoesNotDependOnHeadcount() {
+        Costs small = loanCosts(seed(SMALL_HEADCOUNT));
+        Costs large = loanCosts(seed(LARGE_HEADCOUNT));
+
+        assertThat(small.cached()).isLessThanOrEqualTo(LOAN_DECISION_BUDGET);
+        assertThat(small.first()).isEqualTo(small.cached() + 1);
+        assertThat(small.otherReviewer()).isEqualTo(small.first());
+        assertThat(large).isEqualTo(small);
+    }
+
+    private Costs kycCosts(Fixture fixture) {
+        List<String> reviewers = fixture.employeeEmails();
+        String reviewer = reviewers.get(reviewers.size() / 2);
+        return new Costs(
+            statementsFor(() -> employeeService.verifyKycDocument(reject(fixture.documentIds().get(0)), reviewer)),
+            statementsFor(() -> employeeService.verifyKycDocument(reject(fixture.documentIds().get(1)), reviewer)),
+            statementsFor(() -> employeeService.verifyKycDocument(reject(fixture.documentIds().get(2)), reviewers.get(0))));
+    }
+
+    private Costs loanCosts(Fixture fixture) {
+        List<String> reviewers = fixture.employeeEmails();
+        String reviewer = reviewers.get(reviewers.size() - 1);
+        return new Costs(
+            statementsFor(() -> employeeService.reviewLoan(fixture.loanIds().get(0), "REJECT", "Test", reviewer)),
+            statementsFor(() -> employeeService.reviewLoan(fixture.loanIds().get(1), "REJECT", "Test", reviewer)),
+            statementsFor(() -> employeeService.reviewLoan(fixture.loanIds().get(2), "REJECT", "Test", reviewers.get(0))));
+    }
+
+    private Fixture seed(int employees) {
+        String run = Long.toString(System.nanoTime(), 36);
+        Fixture fixture = new Fixture(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < employees; i++) {
+                User user = userRepository.save(User.builder()
+                    .email("reviewer" + i + "-" + run + "@finsecure.com")
+                    .username("reviewer" + i + run)
+                    .password("x")
+                    .role(User.Role.ROLE_EMPLOYEE)
+                    .build());
+                employeeRepository.save(Employee.builder()
+                    .user(user)
+                    .employeeId(("E" + i + run).substring(0, Math.min(20, ("E" + i + run).length())))
+                    .firstName("Reviewer")
+                    .lastName(Integer.toString(i))
+                    .phone("9000000000")
+                    .joiningDate(LocalDate.now())
+                    .department(Employee.Department.KYC)
+                    .build());
+                fixture.employeeEmails().add(user.getEmail());
+            }
+
+            User customerUser = userRepository.save(User.builder()
+                .email("customer-" + run + "@example.com")
+                .username("customer" + run)
+                .password("x")
+                .role(User.Role.ROLE_CUSTOMER)
+                .build());
+            Customer customer = customerRepository.save(Customer.builder()
+                .user(customerUser)
+                .firstName("Test")
+                .lastName("Customer")
+                .phone("9000000001")
+                .dateOfBirth(LocalDate.of(1990, 1, 1))
+                .build());
+
+            for (int i = 0; i < 3; i++) {
+                fixture.documentIds().add(kycDocumentRepository.save(KycDocument.builder()
+                    .customer(customer)
+                    .documentType(KycDocument.DocumentType.PAN)
+                    .documentNumber("DOC" + i)
+                    .filePath(Path.of("kyc", run, "doc" + i).toString())
+                    .fileName("doc" + i + ".pdf")
+                    .mimeType("application/pdf")
+                    .status(KycDocument.DocumentStatus.UPLOADED)
+                    .queueRankAt(LocalDateTime.now())
+                    .build()).getId());
+                fixture.loanIds().add(loanRepository.save(Loan.builder()
+                    .loanNumber(("LN" + i + run).substring(0, Math.min(20, ("LN" + i + run).length())))
+                    .customer(customer)
+                    .loanType(Loan.LoanType.PERSONAL)
+                    .principalAmount(BigDecimal.valueOf(100000))
+                    .interestRate(BigDecimal.TEN)
+                    .tenureMonths(12)
+                    .emiAmount(BigDecimal.valueOf(8792))
+                    .build()).getId());
+            }
+        });
+        return fixture;
+    }
+
+    private long statementsFor(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static KycVerificationRequest reject(Long documentId) {
+        KycVerificationRequest request = new KycVerificationRequest();
+        request.setDocumentId(documentId);
+        request.setAction("REJECT");
+        request.setRejectionReason("Test");
+        return request;
+    }
+}
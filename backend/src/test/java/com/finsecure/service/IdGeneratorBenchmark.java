@@ -0,0 +1,44 @@
+package com.finsecure.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Id allocation throughput, alone and with threads contending on the shared CAS. One generator
+// is shared by all threads, as in the application. Above 4096 ids per millisecond the sequence
+// borrows future milliseconds, so the timestamps of ids issued here run ahead of the clock. Run with
+//   mvn -Pbenchmarks test-compile exec:exec -Dbenchmark=IdGeneratorBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    private static final int CONTENDING_THREADS = 4;
+
+    private final IdGenerator generator = new IdGenerator(1);
+
+    @Benchmark
+    public long nextId() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    public String nextReferenceNumber() {
+        return generator.nextReferenceNumber();
+    }
+
+    @Benchmark
+    @Threads(CONTENDING_THREADS)
+    public long nextIdContended() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(CONTENDING_THREADS)
+    public String nextReferenceNumberContended() {
+        return generator.nextReferenceNumber();
+    }
+}
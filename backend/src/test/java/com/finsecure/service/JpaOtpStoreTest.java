@@ -0,0 +1,59 @@
+package com.finsecure.service;
+
+import com.finsecure.entity.Otp;
+import com.finsecure.entity.Otp.OtpPurpose;
+import com.finsecure.repository.OtpRepository;
+import com.finsecure.service.OtpStore.VerifyResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A wrong OTP is verified inside the transfer transaction, which then rolls back; the attempt
+// must still count or the code could be guessed without limit.
+@SpringBootTest(properties = {"app.otp.store=database", "app.otp.max-attempts=3"})
+@ActiveProfiles("test")
+class JpaOtpStoreTest {
+
+    @Autowired private OtpStore otpStore;
+    @Autowired private OtpRepository otpRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    @Test
+    void wrongCodeIsCountedWhenTheCallerRollsBack() {
+        String email = "otp-" + System.nanoTime() + "@example.com";
+        otpStore.issue(email, OtpPurpose.TRANSACTION, "123456", Duration.ofMinutes(5));
+
+        for (int i = 0; i < 3; i++) {
+            VerifyResult result = transactionTemplate.execute(status -> {
+                status.setRollbackOnly();
+                return otpStore.verify(email, OtpPurpose.TRANSACTION, "000000");
+            });
+            assertThat(result).isEqualTo(VerifyResult.MISMATCH);
+        }
+
+        Otp otp = otpRepository.findValidOtp(email, OtpPurpose.TRANSACTION, LocalDateTime.now()).orElseThrow();
+        assertThat(otp.getAttemptCount()).isEqualTo(3);
+        assertThat(otpStore.verify(email, OtpPurpose.TRANSACTION, "123456")).isEqualTo(VerifyResult.INVALID);
+    }
+
+    @Test
+    void rolledBackSuccessLeavesTheCodeUsable() {
+        String email = "otp-" + System.nanoTime() + "@example.com";
+        otpStore.issue(email, OtpPurpose.TRANSACTION, "123456", Duration.ofMinutes(5));
+
+        VerifyResult first = transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return otpStore.verify(email, OtpPurpose.TRANSACTION, "123456");
+        });
+
+        assertThat(first).isEqualTo(VerifyResult.VERIFIED);
+        assertThat(otpStore.verify(email, OtpPurpose.TRANSACTION, "123456")).isEqualTo(VerifyResult.VERIFIED);
+    }
+}
@@ -0,0 +1,71 @@
+package com.finsecure.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Transaction alert rendering: the precompiled template against the String.format text block it
+// replaced, for the text body alone and for subject + text + HTML. Run with
+//   mvn -Pbenchmarks test-compile exec:exec -Dbenchmark=MailTemplateBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MailTemplateBenchmark {
+
+    private static final String TYPE = "DEBIT";
+    private static final String AMOUNT = "12,500.00";
+    private static final String ACCOUNT = "FINS1234567890";
+    private static final String BALANCE = "1,04,220.35";
+
+    private MailTemplate text;
+    private MailTemplates templates;
+    private Map<String, String> values;
+    private final StringBuilder buffer = new StringBuilder(1024);
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/mail-templates/transaction-alert.txt")) {
+            String source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            text = MailTemplate.parse("transaction-alert.txt", source.substring(source.indexOf('\n') + 1), false);
+        }
+        templates = new MailTemplates("", "en", List.of("transaction-alert"));
+        values = Map.of("type", TYPE, "amount", AMOUNT, "accountNumber", ACCOUNT, "balance", BALANCE);
+    }
+
+    @Benchmark
+    public String templateText() {
+        buffer.setLength(0);
+        text.render(values, buffer);
+        return buffer.toString();
+    }
+
+    @Benchmark
+    public MailTemplates.RenderedMail templateSubjectTextHtml() {
+        return templates.render("transaction-alert", values);
+    }
+
+    // The text block EmailService formatted before templates were introduced
+    @Benchmark
+    public String stringFormat() {
+        return String.format("""
+            Dear Customer,
+            
+            A %s of Rs. %s has been made on your account %s.
+            
+            Available Balance: Rs. %s
+            
+            If you did not authorize this transaction, please contact us immediately at 1800-XXX-XXXX.
+            
+            Best regards,
+            FinSecure Team
+            """, TYPE, AMOUNT, ACCOUNT, BALANCE);
+    }
+}